@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.smoofyuniverse.logger.benchmark;
+
+import net.smoofyuniverse.logger.core.LogLevel;
+import net.smoofyuniverse.logger.core.LogMessage;
+import net.smoofyuniverse.logger.core.Logger;
+import net.smoofyuniverse.logger.core.LoggerFactory;
+import net.smoofyuniverse.logger.filter.CompiledFilter;
+import net.smoofyuniverse.logger.filter.LevelFilter;
+import net.smoofyuniverse.logger.filter.LogFilter;
+import net.smoofyuniverse.logger.filter.LoggerFilter;
+import net.smoofyuniverse.logger.filter.ParentFilter;
+import net.smoofyuniverse.logger.transformer.LogTransformer;
+import net.smoofyuniverse.logger.transformer.ParentTransformer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of filter and transformer chains of increasing size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChainBenchmark {
+	@Param({"1", "4", "16"})
+	public int size;
+
+	private LogMessage message;
+	private LogFilter parentFilter, compiledFilter;
+	private LogTransformer parentTransformer;
+
+	@Setup
+	public void setup() {
+		Logger logger = new LoggerFactory().provideLogger("benchmark.chain");
+		this.message = new LogMessage(logger, LogLevel.INFO, null, "  A message of a typical length for benchmarking  ");
+
+		// Mixes the kinds of filters a compiled chain handles differently, none of them denies the message.
+		LogFilter[] filters = new LogFilter[this.size];
+		for (int i = 0; i < this.size; i++) {
+			switch (i % 3) {
+				case 0:
+					filters[i] = LevelFilter.minimum(LogLevel.DEBUG, -1);
+					break;
+				case 1:
+					filters[i] = (LoggerFilter) name -> name.startsWith("benchmark.") ? 1 : 0;
+					break;
+				default:
+					filters[i] = msg -> msg.getThread().isDaemon() ? -1 : 0;
+			}
+		}
+		this.parentFilter = new ParentFilter(filters);
+		this.compiledFilter = CompiledFilter.compile(this.parentFilter);
+
+		LogTransformer[] transformers = new LogTransformer[this.size];
+		for (int i = 0; i < this.size; i++)
+			transformers[i] = LogTransformer.text(String::trim);
+		this.parentTransformer = new ParentTransformer(transformers);
+	}
+
+	@Benchmark
+	public int parentFilter() {
+		return this.parentFilter.applyAsInt(this.message);
+	}
+
+	@Benchmark
+	public int compiledFilter() {
+		return this.compiledFilter.applyAsInt(this.message);
+	}
+
+	@Benchmark
+	public LogMessage parentTransformer() {
+		return this.parentTransformer.apply(this.message);
+	}
+
+	@Benchmark
+	public String parentTransformerText() {
+		return this.parentTransformer.apply(this.message).getText();
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.smoofyuniverse.logger.benchmark;
+
+import net.smoofyuniverse.logger.appender.log.AsyncAppender;
+import net.smoofyuniverse.logger.appender.log.FormattedAppender;
+import net.smoofyuniverse.logger.appender.log.LogAppender;
+import net.smoofyuniverse.logger.core.LogLevel;
+import net.smoofyuniverse.logger.core.Logger;
+import net.smoofyuniverse.logger.core.LoggerFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of a logger shared by 1 to 64 threads, appending synchronously or through an {@link AsyncAppender}.
+ * The asynchronous appender drops messages when full so that the benchmark measures the cost for the caller.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContentionBenchmark {
+	@Param({"sync", "async"})
+	public String mode;
+
+	@Param({"false", "true"})
+	public boolean garbageFree;
+
+	private LogAppender appender;
+	private Logger logger;
+
+	@Setup
+	public void setup() {
+		this.appender = new FormattedAppender(new NullStringAppender());
+		if (this.mode.equals("async"))
+			this.appender = AsyncAppender.builder().delegate(this.appender).policy(AsyncAppender.OverflowPolicy.DROP_NEWEST).build();
+
+		LoggerFactory factory = new LoggerFactory();
+		factory.setAppender(this.appender);
+		factory.setLevel(LogLevel.INFO);
+		factory.setGarbageFree(this.garbageFree);
+		this.logger = factory.provideLogger("benchmark.contention");
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.appender.close();
+	}
+
+	private void log() {
+		this.logger.info("Contended {} message {}", "template", 42);
+	}
+
+	@Benchmark
+	@Threads(1)
+	public void threads1() {
+		log();
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void threads4() {
+		log();
+	}
+
+	@Benchmark
+	@Threads(16)
+	public void threads16() {
+		log();
+	}
+
+	@Benchmark
+	@Threads(64)
+	public void threads64() {
+		log();
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.smoofyuniverse.logger.benchmark;
+
+import net.smoofyuniverse.logger.appender.string.ChannelFileAppender;
+import net.smoofyuniverse.logger.appender.string.DatedRollingFileAppender;
+import net.smoofyuniverse.logger.appender.string.FileAppender;
+import net.smoofyuniverse.logger.appender.string.FlushPolicy;
+import net.smoofyuniverse.logger.appender.string.StringAppender;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Throughput of file appenders writing a formatted line, with and without flushing every line.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileAppenderBenchmark {
+	private static final char[] LINE = "12:34:56 [benchmark.file] INFO - A message of a typical length for benchmarking\n".toCharArray();
+
+	@Param({"file", "rolling", "channel"})
+	public String appender;
+
+	@Param({"always", "never"})
+	public String flush;
+
+	private Path directory;
+	private StringAppender target;
+
+	@Setup
+	public void setup() throws IOException {
+		this.directory = Files.createTempDirectory("smoofylogger-benchmark");
+		FlushPolicy policy = this.flush.equals("always") ? FlushPolicy.ALWAYS : FlushPolicy.NEVER;
+
+		switch (this.appender) {
+			case "file":
+				this.target = new FileAppender(this.directory.resolve("file.log"), StandardCharsets.UTF_8, policy);
+				break;
+			case "rolling":
+				this.target = DatedRollingFileAppender.builder().directory(this.directory).flushPolicy(policy).build();
+				break;
+			case "channel":
+				this.target = new ChannelFileAppender(this.directory.resolve("channel.log"), StandardCharsets.UTF_8, policy, ChannelFileAppender.DEFAULT_BUFFER_SIZE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+				break;
+			default:
+				throw new IllegalArgumentException("appender");
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		this.target.close();
+		try (Stream<Path> files = Files.walk(this.directory)) {
+			files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+		}
+	}
+
+	@Benchmark
+	public void accept() {
+		this.target.accept(LINE, 0, LINE.length);
+	}
+}
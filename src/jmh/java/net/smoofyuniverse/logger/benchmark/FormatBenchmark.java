@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.smoofyuniverse.logger.benchmark;
+
+import net.smoofyuniverse.logger.appender.log.FormattedAppender;
+import net.smoofyuniverse.logger.core.DefaultImpl;
+import net.smoofyuniverse.logger.core.LogFields;
+import net.smoofyuniverse.logger.core.LogLevel;
+import net.smoofyuniverse.logger.core.LogMessage;
+import net.smoofyuniverse.logger.core.Logger;
+import net.smoofyuniverse.logger.core.LoggerFactory;
+import net.smoofyuniverse.logger.formatter.JsonFormatter;
+import net.smoofyuniverse.logger.formatter.PatternFormatter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of formatting a message, to a string, to a reused builder and through a {@link FormattedAppender}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormatBenchmark {
+	private final StringBuilder builder = new StringBuilder(256);
+	private final PatternFormatter patternFormatter = new PatternFormatter("%d{HH:mm:ss.SSS} [%t] %p %c - %m%n");
+	private final JsonFormatter jsonFormatter = new JsonFormatter();
+
+	private LogMessage message, throwableMessage;
+	private FormattedAppender appender;
+
+	@Setup
+	public void setup() {
+		Logger logger = new LoggerFactory().provideLogger("benchmark.format");
+		this.message = new LogMessage(logger, LogLevel.INFO, null, "A message of a typical length for benchmarking");
+		this.throwableMessage = new LogMessage(logger, LogLevel.ERROR, BenchmarkThrowable.INSTANCE, "A message with a throwable");
+		this.appender = new FormattedAppender(new NullStringAppender());
+	}
+
+	@Benchmark
+	public String formatLog() {
+		return DefaultImpl.formatLog(this.message);
+	}
+
+	@Benchmark
+	public StringBuilder formatLogBuilder() {
+		this.builder.setLength(0);
+		DefaultImpl.formatLog(this.message, this.builder);
+		return this.builder;
+	}
+
+	@Benchmark
+	public StringBuilder patternFormatter() {
+		this.builder.setLength(0);
+		this.patternFormatter.format(this.message, this.builder);
+		return this.builder;
+	}
+
+	@Benchmark
+	public StringBuilder jsonFormatter() {
+		this.builder.setLength(0);
+		this.jsonFormatter.format(this.message, this.builder);
+		return this.builder;
+	}
+
+	@Benchmark
+	public void formattedAppender() {
+		this.appender.accept(this.message);
+	}
+
+	@Benchmark
+	public void formattedAppenderThrowable() {
+		this.appender.accept(this.throwableMessage);
+	}
+
+	@Benchmark
+	public LogFields fields() {
+		return new LogFields().add("status", 200).add("duration", 1.5).add("path", "/index");
+	}
+}
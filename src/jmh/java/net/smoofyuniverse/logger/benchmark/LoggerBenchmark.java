@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.smoofyuniverse.logger.benchmark;
+
+import net.smoofyuniverse.logger.appender.log.FormattedAppender;
+import net.smoofyuniverse.logger.core.LogLevel;
+import net.smoofyuniverse.logger.core.Logger;
+import net.smoofyuniverse.logger.core.LoggerFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of logging calls at disabled and enabled levels, formatted to a null sink.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggerBenchmark {
+	@Param({"false", "true"})
+	public boolean garbageFree;
+
+	private Logger logger;
+
+	@Setup
+	public void setup() {
+		LoggerFactory factory = new LoggerFactory();
+		factory.setAppender(new FormattedAppender(new NullStringAppender()));
+		factory.setLevel(LogLevel.INFO);
+		factory.setGarbageFree(this.garbageFree);
+		this.logger = factory.provideLogger("benchmark.logger");
+	}
+
+	@Benchmark
+	public void disabledText() {
+		this.logger.debug("Disabled message");
+	}
+
+	@Benchmark
+	public void disabledTemplate() {
+		this.logger.debug("Disabled {} message {}", "template", 42);
+	}
+
+	@Benchmark
+	public void disabledSupplier() {
+		this.logger.debug(() -> "Disabled supplier message");
+	}
+
+	@Benchmark
+	public void enabledText() {
+		this.logger.info("Enabled message");
+	}
+
+	@Benchmark
+	public void enabledTemplate() {
+		this.logger.info("Enabled {} message {}", "template", 42);
+	}
+
+	@Benchmark
+	public void enabledSupplier() {
+		this.logger.info(() -> "Enabled supplier message");
+	}
+
+	@Benchmark
+	public void enabledThrowable() {
+		this.logger.error("Enabled message", BenchmarkThrowable.INSTANCE);
+	}
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.smoofyuniverse.logger.benchmark;
+
+import net.smoofyuniverse.logger.appender.string.StringAppender;
+
+/**
+ * A {@link StringAppender} discarding its input, counting characters so that writes cannot be eliminated.
+ * Appenders are shared by benchmark threads, so each thread counts into its own sink.
+ */
+public final class NullStringAppender implements StringAppender {
+	// A sink is allocated by its own thread, so sinks of different threads do not share a cache line.
+	private final ThreadLocal<Sink> sinks = ThreadLocal.withInitial(Sink::new);
+
+	@Override
+	public void accept(String message) {
+		this.sinks.get().length += message.length();
+	}
+
+	@Override
+	public void accept(char[] buffer, int offset, int length) {
+		this.sinks.get().length += length;
+	}
+
+	/**
+	 * Gets the number of characters appended by the current thread.
+	 *
+	 * @return The number of characters.
+	 */
+	public long getLength() {
+		return this.sinks.get().length;
+	}
+
+	@Override
+	public void close() {}
+
+	private static final class Sink {
+		private long length;
+	}
+}
@@ -0,0 +1,356 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.smoofyuniverse.logger.appender.log;
+
+import net.smoofyuniverse.logger.core.LogLevel;
+import net.smoofyuniverse.logger.core.LogMessage;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link LogAppender} handing messages to a preallocated bounded ring buffer.
+ * The buffer is drained by a dedicated thread that forwards messages to the delegate.
+ */
+public class AsyncAppender implements LogAppender {
+	private static final AtomicInteger threadCounter = new AtomicInteger();
+
+	public final LogAppender delegate;
+	public final OverflowPolicy policy;
+	public final LogLevel minLevel;
+	public final int sampleRate;
+
+	private final LogMessage[] buffer, batch;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notEmpty = this.lock.newCondition(), notFull = this.lock.newCondition(), drained = this.lock.newCondition();
+	private final LongAdder dropped = new LongAdder(), failed = new LongAdder();
+	private final Thread thread;
+
+	private int head, tail, count;
+	private boolean delivering;
+	private long overflows;
+	private volatile boolean closed;
+	private boolean closeRequested;
+
+	public AsyncAppender(LogAppender delegate) {
+		this(delegate, 1024, OverflowPolicy.BLOCK, LogLevel.WARN, 10, null);
+	}
+
+	public AsyncAppender(LogAppender delegate, int capacity, OverflowPolicy policy, LogLevel minLevel, int sampleRate, String threadName) {
+		if (delegate == null)
+			throw new IllegalArgumentException("delegate");
+		if (capacity <= 0)
+			throw new IllegalArgumentException("capacity");
+		if (policy == null)
+			throw new IllegalArgumentException("policy");
+		if (minLevel == null)
+			throw new IllegalArgumentException("minLevel");
+		if (sampleRate <= 0)
+			throw new IllegalArgumentException("sampleRate");
+
+		this.delegate = delegate;
+		this.policy = policy;
+		this.minLevel = minLevel;
+		this.sampleRate = sampleRate;
+		this.buffer = new LogMessage[capacity];
+		this.batch = new LogMessage[capacity];
+
+		this.thread = new Thread(this::run, threadName == null ? "AsyncAppender-" + threadCounter.incrementAndGet() : threadName);
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	@Override
+	public void accept(LogMessage message) {
+		if (this.closed) {
+			this.dropped.increment();
+			return;
+		}
+
+		// The worker cannot wait for itself, messages logged by the delegate are forwarded directly.
+		if (Thread.currentThread() == this.thread) {
+			this.delegate.accept(message);
+			return;
+		}
+
+		message = message.snapshot();
+		this.lock.lock();
+		try {
+			// The worker may have drained the buffer for the last time since the check above.
+			if (this.closed) {
+				this.dropped.increment();
+				return;
+			}
+
+			while (this.count == this.buffer.length) {
+				if (this.closed || !shouldWait(message)) {
+					this.dropped.increment();
+					return;
+				}
+
+				try {
+					this.notFull.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					this.dropped.increment();
+					return;
+				}
+			}
+
+			this.buffer[this.tail] = message;
+			if (++this.tail == this.buffer.length)
+				this.tail = 0;
+			this.count++;
+			this.notEmpty.signal();
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	private boolean shouldWait(LogMessage message) {
+		switch (this.policy) {
+			case BLOCK:
+				return true;
+			case DROP_BELOW_LEVEL:
+				return message.getLevel().ordinal() >= this.minLevel.ordinal();
+			case SAMPLE:
+				return this.overflows++ % this.sampleRate == 0;
+			default:
+				return false;
+		}
+	}
+
+	private void run() {
+		try {
+			deliver();
+		} finally {
+			// Producers must not wait for a worker that is gone.
+			this.lock.lock();
+			try {
+				this.closed = true;
+				this.delivering = false;
+				this.notFull.signalAll();
+				this.drained.signalAll();
+			} finally {
+				this.lock.unlock();
+			}
+		}
+	}
+
+	private void deliver() {
+		while (true) {
+			int size = 0;
+
+			this.lock.lock();
+			try {
+				this.delivering = false;
+				while (this.count == 0) {
+					this.drained.signalAll();
+					if (this.closed)
+						return;
+					this.notEmpty.awaitUninterruptibly();
+				}
+				this.delivering = true;
+
+				while (this.count != 0) {
+					this.batch[size++] = this.buffer[this.head];
+					this.buffer[this.head] = null;
+					if (++this.head == this.buffer.length)
+						this.head = 0;
+					this.count--;
+				}
+				this.notFull.signalAll();
+			} finally {
+				this.lock.unlock();
+			}
+
+			for (int i = 0; i < size; i++) {
+				try {
+					this.delegate.accept(this.batch[i]);
+				} catch (Throwable t) {
+					// The worker must survive any failure of the delegate, including errors.
+					this.failed.increment();
+				}
+				this.batch[i] = null;
+			}
+		}
+	}
+
+	/**
+	 * Waits until all pending messages have been appended, then flushes the delegate.
+	 */
+	@Override
+	public void flush() {
+		if (Thread.currentThread() != this.thread) {
+			this.lock.lock();
+			try {
+				while ((this.count != 0 || this.delivering) && this.thread.isAlive())
+					this.drained.awaitUninterruptibly();
+			} finally {
+				this.lock.unlock();
+			}
+		}
+
+		this.delegate.flush();
+	}
+
+	/**
+	 * Gets the number of messages currently waiting in the buffer.
+	 *
+	 * @return The number of pending messages.
+	 */
+	public int getPendingCount() {
+		this.lock.lock();
+		try {
+			return this.count;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Gets the number of messages dropped because the buffer was full or the appender was closed.
+	 *
+	 * @return The number of dropped messages.
+	 */
+	public long getDroppedCount() {
+		return this.dropped.sum();
+	}
+
+	/**
+	 * Gets the number of messages the delegate failed to append.
+	 *
+	 * @return The number of failed messages.
+	 */
+	public long getFailedCount() {
+		return this.failed.sum();
+	}
+
+	/**
+	 * Stops accepting messages, drains the buffer and closes the delegate.
+	 */
+	@Override
+	public void close() {
+		this.lock.lock();
+		try {
+			// The worker also marks the appender closed when it dies, the delegate must still be closed once.
+			if (this.closeRequested)
+				return;
+			this.closeRequested = true;
+			this.closed = true;
+			this.notEmpty.signalAll();
+			this.notFull.signalAll();
+		} finally {
+			this.lock.unlock();
+		}
+
+		if (Thread.currentThread() != this.thread) {
+			boolean interrupted = false;
+			while (true) {
+				try {
+					this.thread.join();
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted)
+				Thread.currentThread().interrupt();
+		}
+
+		this.delegate.close();
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * The behavior when a message is appended while the buffer is full.
+	 */
+	public enum OverflowPolicy {
+		/**
+		 * Waits until space is available.
+		 */
+		BLOCK,
+		/**
+		 * Drops the new message.
+		 */
+		DROP_NEWEST,
+		/**
+		 * Drops the new message if its level is lower than the minimum level, waits otherwise.
+		 */
+		DROP_BELOW_LEVEL,
+		/**
+		 * Waits for one message out of sample rate, drops the others.
+		 */
+		SAMPLE
+	}
+
+	public static class Builder {
+		private LogAppender delegate;
+		private int capacity = 1024;
+		private OverflowPolicy policy = OverflowPolicy.BLOCK;
+		private LogLevel minLevel = LogLevel.WARN;
+		private int sampleRate = 10;
+		private String threadName;
+
+		private Builder() {}
+
+		public Builder delegate(LogAppender value) {
+			this.delegate = value;
+			return this;
+		}
+
+		public Builder capacity(int value) {
+			this.capacity = value;
+			return this;
+		}
+
+		public Builder policy(OverflowPolicy value) {
+			this.policy = value;
+			return this;
+		}
+
+		public Builder minLevel(LogLevel value) {
+			this.minLevel = value;
+			return this;
+		}
+
+		public Builder sampleRate(int value) {
+			this.sampleRate = value;
+			return this;
+		}
+
+		public Builder threadName(String value) {
+			this.threadName = value;
+			return this;
+		}
+
+		public AsyncAppender build() {
+			return new AsyncAppender(this.delegate, this.capacity, this.policy, this.minLevel, this.sampleRate, this.threadName);
+		}
+	}
+}
@@ -25,9 +25,12 @@ package net.smoofyuniverse.logger.appender.log;
 import net.smoofyuniverse.logger.core.LogMessage;
 import net.smoofyuniverse.logger.filter.LogFilter;
 
+import java.util.concurrent.atomic.LongAdder;
+
 public class FilteredAppender implements LogAppender {
 	public final LogAppender delegate;
 	public final LogFilter filter;
+	private final LongAdder filtered = new LongAdder();
 
 	public FilteredAppender(LogAppender delegate, LogFilter filter) {
 		if (delegate == null)
@@ -43,6 +46,22 @@ public class FilteredAppender implements LogAppender {
 	public void accept(LogMessage message) {
 		if (this.filter.test(message))
 			this.delegate.accept(message);
+		else
+			this.filtered.increment();
+	}
+
+	/**
+	 * Gets the number of messages denied by the filter.
+	 *
+	 * @return The number of filtered messages.
+	 */
+	public long getFilteredCount() {
+		return this.filtered.sum();
+	}
+
+	@Override
+	public void flush() {
+		this.delegate.flush();
 	}
 
 	@Override
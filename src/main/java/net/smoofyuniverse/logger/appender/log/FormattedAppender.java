@@ -24,41 +24,144 @@ package net.smoofyuniverse.logger.appender.log;
 
 import net.smoofyuniverse.logger.appender.string.StringAppender;
 import net.smoofyuniverse.logger.core.DefaultImpl;
+import net.smoofyuniverse.logger.core.LogLevel;
 import net.smoofyuniverse.logger.core.LogMessage;
+import net.smoofyuniverse.logger.formatter.LogFormatter;
+import net.smoofyuniverse.logger.formatter.ThrowableRenderer;
 
 import java.util.function.Function;
 
+/**
+ * A {@link LogAppender} formatting messages to a {@link StringAppender}.
+ * Messages are formatted into a reusable per-thread buffer and appended as characters.
+ */
 public class FormattedAppender implements LogAppender {
+	private static final ThreadLocal<Buffer> buffers = ThreadLocal.withInitial(Buffer::new);
+
 	public final StringAppender stringAppender;
-	public final Function<LogMessage, String> formatter;
+	public final LogFormatter formatter;
+	/**
+	 * Messages with this level or higher are flushed immediately.
+	 * May be null.
+	 */
+	public final LogLevel flushLevel;
+	public final ThrowableRenderer renderer;
+	/**
+	 * Whether formatted text and stack trace are memoized on the message,
+	 * so that they are computed once for all appenders sharing the same formatter and renderer.
+	 */
+	public final boolean memoize;
+
+	private final Function<LogMessage, String> stackTraceFunction;
 
 	public FormattedAppender(StringAppender stringAppender) {
-		this(stringAppender, DefaultImpl::formatLog);
+		this(stringAppender, DefaultImpl.FORMATTER);
 	}
 
 	public FormattedAppender(StringAppender stringAppender, Function<LogMessage, String> formatter) {
+		this(stringAppender, LogFormatter.of(formatter));
+	}
+
+	public FormattedAppender(StringAppender stringAppender, Function<LogMessage, String> formatter, LogLevel flushLevel) {
+		this(stringAppender, LogFormatter.of(formatter), flushLevel);
+	}
+
+	public FormattedAppender(StringAppender stringAppender, LogFormatter formatter) {
+		this(stringAppender, formatter, null);
+	}
+
+	public FormattedAppender(StringAppender stringAppender, LogFormatter formatter, LogLevel flushLevel) {
+		this(stringAppender, formatter, flushLevel, ThrowableRenderer.DEFAULT);
+	}
+
+	public FormattedAppender(StringAppender stringAppender, LogFormatter formatter, LogLevel flushLevel, ThrowableRenderer renderer) {
+		this(stringAppender, formatter, flushLevel, renderer, false);
+	}
+
+	public FormattedAppender(StringAppender stringAppender, LogFormatter formatter, LogLevel flushLevel, ThrowableRenderer renderer, boolean memoize) {
 		if (stringAppender == null)
 			throw new IllegalArgumentException("stringAppender");
 		if (formatter == null)
 			throw new IllegalArgumentException("formatter");
+		if (renderer == null)
+			throw new IllegalArgumentException("renderer");
 
 		this.stringAppender = stringAppender;
 		this.formatter = formatter;
+		this.flushLevel = flushLevel;
+		this.renderer = renderer;
+		this.memoize = memoize;
+		this.stackTraceFunction = message -> {
+			StringBuilder builder = new StringBuilder();
+			message.appendStackTrace(builder, renderer);
+			return builder.toString();
+		};
 	}
 
 	@Override
 	public void accept(LogMessage message) {
-		acceptString(this.formatter.apply(message));
-		acceptString(message.getStackTrace());
+		Buffer buffer = buffers.get();
+		// The formatter may log recursively, the shared buffer cannot be used twice.
+		if (buffer.inUse)
+			buffer = new Buffer();
+
+		buffer.inUse = true;
+		try {
+			if (this.memoize) {
+				buffer.builder.append(message.memoize(this.formatter, this.formatter));
+				if (!this.formatter.formatsStackTrace() && (message.getThrowable() != null || !message.getStackTrace().isEmpty()))
+					buffer.builder.append(message.memoize(this.renderer, this.stackTraceFunction));
+			} else {
+				this.formatter.format(message, buffer.builder);
+				if (!this.formatter.formatsStackTrace())
+					message.appendStackTrace(buffer.builder, this.renderer);
+			}
+			buffer.flushTo(this.stringAppender);
+		} finally {
+			buffer.release();
+		}
+
+		if (this.flushLevel != null && message.getLevel().ordinal() >= this.flushLevel.ordinal())
+			this.stringAppender.flush();
 	}
 
-	private void acceptString(String message) {
-		if (!message.isEmpty())
-			this.stringAppender.accept(message);
+	@Override
+	public void flush() {
+		this.stringAppender.flush();
 	}
 
 	@Override
 	public void close() {
 		this.stringAppender.close();
 	}
+
+	private static final class Buffer {
+		private static final int MAX_CAPACITY = 1 << 16;
+
+		private StringBuilder builder = new StringBuilder(256);
+		private char[] chars = new char[256];
+		private boolean inUse;
+
+		private void flushTo(StringAppender appender) {
+			int length = this.builder.length();
+			if (length == 0)
+				return;
+
+			if (this.chars.length < length)
+				this.chars = new char[Math.max(length, this.chars.length * 2)];
+			this.builder.getChars(0, length, this.chars, 0);
+			appender.accept(this.chars, 0, length);
+		}
+
+		private void release() {
+			// Do not retain the memory used by an exceptionally large message.
+			if (this.builder.capacity() > MAX_CAPACITY) {
+				this.builder = new StringBuilder(256);
+				this.chars = new char[256];
+			} else {
+				this.builder.setLength(0);
+			}
+			this.inUse = false;
+		}
+	}
 }
@@ -40,6 +40,11 @@ public interface LogAppender extends Consumer<LogMessage>, Closeable {
 	@Override
 	void accept(LogMessage message);
 
+	/**
+	 * Flushes any buffered output.
+	 */
+	default void flush() {}
+
 	@Override
 	void close();
 }
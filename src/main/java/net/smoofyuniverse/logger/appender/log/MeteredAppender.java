@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.smoofyuniverse.logger.appender.log;
+
+import net.smoofyuniverse.logger.core.LogMessage;
+import net.smoofyuniverse.logger.metrics.AppenderSnapshot;
+import net.smoofyuniverse.logger.metrics.LatencyHistogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link LogAppender} measuring its delegate.
+ * <p>
+ * Counts accepted and failed messages and records the latency of each call to the delegate.
+ * Snapshots follow the delegates through {@link FilteredAppender}s and {@link TransformedAppender}s:
+ * messages denied by these filters are reported as filtered rather than accepted,
+ * and counts of the first {@link AsyncAppender} are included.
+ * Messages filtered behind an asynchronous appender are counted as accepted.
+ * Metered appenders of a factory are exposed by {@link net.smoofyuniverse.logger.metrics.LoggingMetrics}.
+ */
+public class MeteredAppender implements LogAppender {
+	public final String name;
+	public final LogAppender delegate;
+
+	private final LongAdder calls = new LongAdder(), failed = new LongAdder();
+	private final LatencyHistogram latency = new LatencyHistogram();
+
+	public MeteredAppender(String name, LogAppender delegate) {
+		if (name == null)
+			throw new IllegalArgumentException("name");
+		if (delegate == null)
+			throw new IllegalArgumentException("delegate");
+
+		this.name = name;
+		this.delegate = delegate;
+	}
+
+	@Override
+	public void accept(LogMessage message) {
+		long start = System.nanoTime();
+		try {
+			this.delegate.accept(message);
+			this.calls.increment();
+		} catch (RuntimeException | Error e) {
+			this.failed.increment();
+			throw e;
+		} finally {
+			this.latency.record(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Takes a snapshot of the metrics of this appender.
+	 *
+	 * @return The snapshot.
+	 */
+	public AppenderSnapshot snapshot() {
+		long failed = this.failed.sum(), filtered = 0, dropped = 0;
+		LogAppender appender = this.delegate;
+		while (true) {
+			if (appender instanceof FilteredAppender) {
+				FilteredAppender f = (FilteredAppender) appender;
+				filtered += f.getFilteredCount();
+				appender = f.delegate;
+			} else if (appender instanceof TransformedAppender) {
+				appender = ((TransformedAppender) appender).delegate;
+			} else {
+				if (appender instanceof AsyncAppender) {
+					AsyncAppender async = (AsyncAppender) appender;
+					failed += async.getFailedCount();
+					dropped = async.getDroppedCount();
+				}
+				break;
+			}
+		}
+
+		// Filtered messages are counted before the call returns, the difference is clamped while calls are in progress.
+		long accepted = Math.max(0, this.calls.sum() - filtered);
+		return new AppenderSnapshot(this.name, accepted, failed, filtered, dropped, this.latency.snapshot());
+	}
+
+	@Override
+	public void flush() {
+		this.delegate.flush();
+	}
+
+	@Override
+	public void close() {
+		this.delegate.close();
+	}
+}
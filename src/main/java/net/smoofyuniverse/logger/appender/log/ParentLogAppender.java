@@ -28,17 +28,29 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.concurrent.CopyOnWriteArrayList;
 
+/**
+ * A {@link LogAppender} forwarding messages to every child.
+ * <p>
+ * By default children are called sequentially on the caller thread.
+ * See {@link #isolated(int, AsyncAppender.OverflowPolicy, LogAppender...)} to dispatch to each child from its own worker.
+ */
 public class ParentLogAppender implements LogAppender {
 	public final Collection<LogAppender> children;
+	private final boolean snapshot;
 
 	public ParentLogAppender() {
 		this(new CopyOnWriteArrayList<>());
 	}
 
 	public ParentLogAppender(Collection<LogAppender> children) {
+		this(children, false);
+	}
+
+	private ParentLogAppender(Collection<LogAppender> children, boolean snapshot) {
 		if (children == null)
 			throw new IllegalArgumentException("children");
 		this.children = children;
+		this.snapshot = snapshot;
 	}
 
 	public ParentLogAppender(LogAppender... children) {
@@ -47,13 +59,51 @@ public class ParentLogAppender implements LogAppender {
 
 	@Override
 	public void accept(LogMessage message) {
+		// Children retaining the message share a single snapshot instead of copying it each.
+		if (this.snapshot)
+			message = message.snapshot();
 		for (LogAppender a : this.children)
 			a.accept(message);
 	}
 
+	@Override
+	public void flush() {
+		for (LogAppender a : this.children)
+			a.flush();
+	}
+
 	@Override
 	public void close() {
 		for (LogAppender a : this.children)
 			a.close();
 	}
+
+	/**
+	 * Creates a parent wrapping each child in its own {@link AsyncAppender}.
+	 * Each child has its own queue and worker thread so that a slow or failing child does not delay the others.
+	 * Messages are delivered to each child in order, overflows are handled per child according to the policy.
+	 *
+	 * @param capacity The capacity of the queue of each child.
+	 * @param policy   The overflow policy of each child.
+	 * @param children The children.
+	 * @return The parent appender.
+	 */
+	public static ParentLogAppender isolated(int capacity, AsyncAppender.OverflowPolicy policy, LogAppender... children) {
+		if (children == null)
+			throw new IllegalArgumentException("children");
+
+		if (capacity <= 0)
+			throw new IllegalArgumentException("capacity");
+		if (policy == null)
+			throw new IllegalArgumentException("policy");
+		for (LogAppender child : children) {
+			if (child == null)
+				throw new IllegalArgumentException("children");
+		}
+
+		Collection<LogAppender> list = new CopyOnWriteArrayList<>();
+		for (LogAppender child : children)
+			list.add(AsyncAppender.builder().delegate(child).capacity(capacity).policy(policy).build());
+		return new ParentLogAppender(list, true);
+	}
 }
@@ -44,6 +44,11 @@ public class TransformedAppender implements LogAppender {
 		this.delegate.accept(this.transformer.apply(message));
 	}
 
+	@Override
+	public void flush() {
+		this.delegate.flush();
+	}
+
 	@Override
 	public void close() {
 		this.delegate.close();
@@ -30,32 +30,68 @@ import java.io.IOException;
  */
 public class BufferedWriterAppender implements StringAppender {
 	public final BufferedWriter writer;
+	public final FlushPolicy flushPolicy;
 	private boolean closed = false;
 
 	public BufferedWriterAppender(BufferedWriter writer) {
+		this(writer, FlushPolicy.ALWAYS);
+	}
+
+	public BufferedWriterAppender(BufferedWriter writer, FlushPolicy flushPolicy) {
 		if (writer == null)
 			throw new IllegalArgumentException("writer");
+		if (flushPolicy == null)
+			throw new IllegalArgumentException("flushPolicy");
 		this.writer = writer;
+		this.flushPolicy = flushPolicy;
+		flushPolicy.register(this);
 	}
 
 	@Override
-	public void accept(String message) {
+	public synchronized void accept(String message) {
 		if (this.closed)
 			return;
 
 		try {
 			this.writer.write(message);
-			this.writer.flush();
+			if (this.flushPolicy.shouldFlush(message.length()))
+				this.writer.flush();
 		} catch (IOException e) {
 			throw new RuntimeException(e);
 		}
 	}
 
 	@Override
-	public void close() {
+	public synchronized void accept(char[] buffer, int offset, int length) {
+		if (this.closed)
+			return;
+
+		try {
+			this.writer.write(buffer, offset, length);
+			if (this.flushPolicy.shouldFlush(length))
+				this.writer.flush();
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	public synchronized void flush() {
+		if (this.closed)
+			return;
+
+		try {
+			this.writer.flush();
+		} catch (IOException ignored) {
+		}
+	}
+
+	@Override
+	public synchronized void close() {
 		if (this.closed)
 			return;
 
+		this.flushPolicy.unregister(this);
 		try {
 			this.writer.close();
 		} catch (IOException ignored) {
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.smoofyuniverse.logger.appender.string;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A {@link StringAppender} encoding text into a reusable direct buffer written to a {@link FileChannel}.
+ */
+public class ChannelFileAppender extends EncodingAppender {
+	public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+	public final StandardOpenOption[] options;
+	public final FlushPolicy flushPolicy;
+	public final Path file;
+
+	private final Set<OpenOption> openOptions;
+	private FileChannel channel;
+
+	public ChannelFileAppender(Path file, StandardOpenOption... options) {
+		this(file, StandardCharsets.UTF_8, FlushPolicy.ALWAYS, DEFAULT_BUFFER_SIZE, options);
+	}
+
+	public ChannelFileAppender(Path file, Charset charset, FlushPolicy flushPolicy, int bufferSize, StandardOpenOption... options) {
+		super(charset);
+		if (file == null)
+			throw new IllegalArgumentException("file");
+		if (flushPolicy == null)
+			throw new IllegalArgumentException("flushPolicy");
+		if (bufferSize < 16)
+			throw new IllegalArgumentException("bufferSize");
+		if (options == null)
+			throw new IllegalArgumentException("options");
+
+		this.file = file;
+		this.flushPolicy = flushPolicy;
+		this.options = options;
+
+		Set<OpenOption> set = new HashSet<>();
+		if (options.length == 0) {
+			set.add(StandardOpenOption.CREATE);
+			set.add(StandardOpenOption.TRUNCATE_EXISTING);
+		} else {
+			Collections.addAll(set, options);
+		}
+		set.add(StandardOpenOption.WRITE);
+		this.openOptions = set;
+
+		this.buffer = ByteBuffer.allocateDirect(bufferSize);
+	}
+
+	@Override
+	protected void open() throws IOException {
+		if (this.channel == null) {
+			this.channel = FileChannel.open(this.file, this.openOptions);
+			this.flushPolicy.register(this);
+		}
+	}
+
+	@Override
+	protected void written(int length) throws IOException {
+		if (this.flushPolicy.shouldFlush(length))
+			drain();
+	}
+
+	@Override
+	protected void overflow() throws IOException {
+		drain();
+	}
+
+	private void drain() throws IOException {
+		this.buffer.flip();
+		while (this.buffer.hasRemaining())
+			this.channel.write(this.buffer);
+		this.buffer.clear();
+	}
+
+	@Override
+	public synchronized void flush() {
+		if (this.channel == null)
+			return;
+
+		try {
+			drain();
+		} catch (IOException ignored) {
+		}
+	}
+
+	@Override
+	public synchronized void close() {
+		if (this.channel == null)
+			return;
+
+		this.flushPolicy.unregister(this);
+		try {
+			drain();
+		} catch (IOException ignored) {
+		}
+		try {
+			this.channel.close();
+		} catch (IOException ignored) {
+		}
+		this.buffer.clear();
+		this.channel = null;
+	}
+}
@@ -23,33 +23,93 @@
 package net.smoofyuniverse.logger.appender.string;
 
 import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.text.ParsePosition;
 import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
-import java.util.TreeMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
 
+/**
+ * A {@link StringAppender} writing to a file per day, optionally split into indexed files of limited size.
+ * <p>
+ * The instant of the next rollover is precomputed so that the check performed for each message is a single comparison.
+ * Rolled files can be compressed to gzip, then old files exceeding the maximum number of files are deleted.
+ * Both tasks run on a background maintenance executor.
+ * Files are named {@code prefix + date + suffix}, or {@code prefix + date + "." + index + suffix} after a size-based rollover.
+ */
 public final class DatedRollingFileAppender implements StringAppender {
 	public static final DateTimeFormatter DEFAULT_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 	public static final Clock DEFAULT_CLOCK = Clock.systemDefaultZone();
+	public static final String COMPRESSED_SUFFIX = ".gz";
+
+	private static ExecutorService maintenanceExecutor;
 
 	public final Path directory;
 	public final DateTimeFormatter formatter;
 	public final Clock clock;
 	public final String prefix, suffix;
 	public final int maxFiles;
+	public final FlushPolicy flushPolicy;
+	/**
+	 * The size in bytes from which a new indexed file is started, or 0 for no limit.
+	 */
+	public final long maxFileSize;
+	/**
+	 * Whether rolled files are compressed to gzip.
+	 */
+	public final boolean compress;
+	/**
+	 * Whether files are written compressed to gzip, see {@link DeflateFileAppender}.
+	 * Such files are named with the additional {@link #COMPRESSED_SUFFIX} and are never appended to, an existing file takes its index.
+	 */
+	public final boolean gzip;
+	private final ExecutorService executor;
 
 	private LocalDate currentDate;
+	private int currentIndex;
+	private long nextRollover = Long.MIN_VALUE;
 	private BufferedWriter writer;
+	private CountingOutputStream stream;
 	private Path file;
+	private boolean cleanupPending;
 
 	public DatedRollingFileAppender(Path directory, DateTimeFormatter formatter, Clock clock, String prefix, String suffix, int maxFiles) {
+		this(directory, formatter, clock, prefix, suffix, maxFiles, FlushPolicy.ALWAYS);
+	}
+
+	public DatedRollingFileAppender(Path directory, DateTimeFormatter formatter, Clock clock, String prefix, String suffix, int maxFiles, FlushPolicy flushPolicy) {
+		this(directory, formatter, clock, prefix, suffix, maxFiles, flushPolicy, 0);
+	}
+
+	public DatedRollingFileAppender(Path directory, DateTimeFormatter formatter, Clock clock, String prefix, String suffix, int maxFiles, FlushPolicy flushPolicy, long maxFileSize) {
+		this(directory, formatter, clock, prefix, suffix, maxFiles, flushPolicy, maxFileSize, false, false, null);
+	}
+
+	/**
+	 * @param compress Whether rolled files are compressed in the background.
+	 * @param gzip     Whether files are written compressed, in which case they are not compressed again.
+	 * @param executor The executor running compression and cleanup, or null to use a shared single thread.
+	 */
+	public DatedRollingFileAppender(Path directory, DateTimeFormatter formatter, Clock clock, String prefix, String suffix, int maxFiles, FlushPolicy flushPolicy, long maxFileSize, boolean compress, boolean gzip, ExecutorService executor) {
 		if (directory == null)
 			throw new IllegalArgumentException("directory");
 		if (formatter == null)
@@ -60,6 +120,10 @@ public final class DatedRollingFileAppender implements StringAppender {
 			throw new IllegalArgumentException("prefix");
 		if (suffix == null)
 			throw new IllegalArgumentException("suffix");
+		if (flushPolicy == null)
+			throw new IllegalArgumentException("flushPolicy");
+		if (maxFileSize < 0)
+			throw new IllegalArgumentException("maxFileSize");
 
 		this.directory = directory;
 		this.formatter = formatter;
@@ -67,6 +131,11 @@ public final class DatedRollingFileAppender implements StringAppender {
 		this.suffix = suffix;
 		this.prefix = prefix;
 		this.maxFiles = maxFiles < 0 ? 0 : maxFiles;
+		this.flushPolicy = flushPolicy;
+		this.maxFileSize = maxFileSize;
+		this.compress = compress && !gzip;
+		this.gzip = gzip;
+		this.executor = executor;
 
 		try {
 			Files.createDirectories(directory);
@@ -75,95 +144,411 @@ public final class DatedRollingFileAppender implements StringAppender {
 	}
 
 	@Override
-	public void accept(String message) {
+	public synchronized void accept(String message) {
 		try {
-			if (update())
-				cleanup();
+			update();
 
 			getWriter().write(message);
-			this.writer.flush();
+			if (this.flushPolicy.shouldFlush(message.length()))
+				this.writer.flush();
 		} catch (Exception e) {
 			throw e instanceof RuntimeException ? (RuntimeException) e : new RuntimeException(e);
 		}
 	}
 
-	public boolean update() {
-		LocalDate today = LocalDate.now(this.clock);
-		if (!today.equals(this.currentDate)) {
-			this.file = this.directory.resolve(this.prefix + this.formatter.format(today) + this.suffix);
-			this.currentDate = today;
-			close();
+	@Override
+	public synchronized void accept(char[] buffer, int offset, int length) {
+		try {
+			update();
+
+			getWriter().write(buffer, offset, length);
+			if (this.flushPolicy.shouldFlush(length))
+				this.writer.flush();
+		} catch (Exception e) {
+			throw e instanceof RuntimeException ? (RuntimeException) e : new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Switches to a new file if the date changed or if the current file is full.
+	 * Maintenance of the previous files is scheduled when a new file is started.
+	 *
+	 * @return Whether a new file was started.
+	 */
+	public synchronized boolean update() {
+		Path previous = this.file;
+		if (!roll())
+			return false;
+		scheduleMaintenance(previous);
+		return true;
+	}
+
+	private boolean roll() {
+		long now = this.clock.millis();
+		if (now < this.nextRollover && (this.maxFileSize == 0 || this.stream == null || this.stream.count < this.maxFileSize))
+			return false;
+
+		if (now >= this.nextRollover) {
+			LocalDate today = Instant.ofEpochMilli(now).atZone(this.clock.getZone()).toLocalDate();
+			this.nextRollover = today.plusDays(1).atStartOfDay(this.clock.getZone()).toInstant().toEpochMilli();
+			if (!today.equals(this.currentDate)) {
+				this.currentDate = today;
+				this.currentIndex = 0;
+				close();
+				this.file = resolveFile();
+				skipFullFiles();
+				return true;
+			}
+			// The date did not change, for example after a clock adjustment.
+			if (this.maxFileSize == 0 || this.stream == null || this.stream.count < this.maxFileSize)
+				return false;
+		}
+
+		close();
+		this.currentIndex++;
+		this.file = resolveFile();
+		skipFullFiles();
+		return true;
+	}
+
+	// Files of a previous run may already be full or compressed.
+	private void skipFullFiles() {
+		while (isTaken(this.file)) {
+			this.currentIndex++;
+			this.file = resolveFile();
+		}
+	}
+
+	private boolean isTaken(Path file) {
+		// A gzip file is never appended to, since a member left unterminated by a crash would hide the following ones.
+		if (this.gzip)
+			return Files.exists(file);
+		if (Files.exists(compressedFile(file)))
 			return true;
+		if (this.maxFileSize == 0)
+			return false;
+
+		try {
+			return Files.size(file) >= this.maxFileSize;
+		} catch (IOException e) {
+			// The file does not exist.
+			return false;
+		}
+	}
+
+	private static Path compressedFile(Path file) {
+		return file.resolveSibling(file.getFileName() + COMPRESSED_SUFFIX);
+	}
+
+	private Path resolveFile() {
+		String date = this.formatter.format(this.currentDate);
+		String name = this.currentIndex == 0 ? this.prefix + date + this.suffix : this.prefix + date + "." + this.currentIndex + this.suffix;
+		return this.directory.resolve(this.gzip ? name + COMPRESSED_SUFFIX : name);
+	}
+
+	private void scheduleMaintenance(Path previous) {
+		boolean compress = this.compress && previous != null;
+		// The first rollover of this appender also compresses files left uncompressed by a previous run.
+		boolean sweep = this.compress && previous == null;
+		// Consecutive rollovers share a single pending cleanup.
+		boolean cleanup = this.maxFiles != 0 && !this.cleanupPending;
+		if (!compress && !sweep && !cleanup)
+			return;
+		if (cleanup)
+			this.cleanupPending = true;
+
+		(this.executor == null ? getMaintenanceExecutor() : this.executor).execute(() -> {
+			if (compress) {
+				try {
+					compress(previous);
+				} catch (IOException ignored) {
+				}
+			}
+			if (sweep) {
+				try {
+					compressRolledFiles();
+				} catch (IOException ignored) {
+				}
+			}
+			if (cleanup) {
+				synchronized (this) {
+					this.cleanupPending = false;
+				}
+				try {
+					cleanup();
+				} catch (Exception ignored) {
+				}
+			}
+		});
+	}
+
+	// Compresses the rolled files other than the current one that are not compressed yet.
+	private void compressRolledFiles() throws IOException {
+		List<Path> files = new ArrayList<>();
+		try (DirectoryStream<Path> st = Files.newDirectoryStream(this.directory)) {
+			for (Path p : st) {
+				if (!p.getFileName().toString().endsWith(COMPRESSED_SUFFIX) && parse(p) != null && !Files.exists(compressedFile(p)))
+					files.add(p);
+			}
+		}
+
+		for (Path p : files) {
+			synchronized (this) {
+				if (p.equals(this.file))
+					continue;
+			}
+			try {
+				compress(p);
+			} catch (IOException ignored) {
+			}
 		}
-		return false;
 	}
 
+	/**
+	 * Compresses a file to gzip and deletes it.
+	 * The compressed file is written to a temporary file first so that a partial file is never visible.
+	 * An existing compressed file is never replaced.
+	 *
+	 * @param file The file.
+	 * @throws FileAlreadyExistsException if the compressed file already exists.
+	 * @throws IOException                if an I/O error occurs.
+	 */
+	public static void compress(Path file) throws IOException {
+		if (!Files.exists(file))
+			return;
+
+		Path target = compressedFile(file);
+		if (Files.exists(target))
+			throw new FileAlreadyExistsException(target.toString());
+
+		// Concurrent compressions of the same file use distinct temporary files, only one of them is moved.
+		Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName() + COMPRESSED_SUFFIX + ".", ".tmp");
+		try {
+			try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp), 1 << 16)) {
+				Files.copy(file, out);
+			}
+			// Without REPLACE_EXISTING the move fails if the target appeared meanwhile.
+			Files.move(temp, target);
+		} catch (IOException e) {
+			Files.deleteIfExists(temp);
+			throw e;
+		}
+		Files.delete(file);
+	}
+
+	/**
+	 * Deletes the oldest files until at most the maximum number of files remain.
+	 * This method is called on a background thread when a new file is started.
+	 *
+	 * @throws Exception if an exception occurs while listing or deleting files.
+	 */
 	public void cleanup() throws Exception {
+		Path current;
+		synchronized (this) {
+			current = this.file;
+		}
+		cleanup(current);
+	}
+
+	private void cleanup(Path current) throws Exception {
 		if (this.maxFiles == 0)
 			return;
 
-		TreeMap<LocalDate, Path> files = new TreeMap<>();
+		List<RolledFile> files = new ArrayList<>();
+		boolean hasCurrent = false;
 
 		try (DirectoryStream<Path> st = Files.newDirectoryStream(this.directory)) {
 			for (Path p : st) {
-				String fn = p.getFileName().toString();
-				if (fn.startsWith(this.prefix) && fn.endsWith(this.suffix)) {
-					try {
-						files.put(LocalDate.from(this.formatter.parse(fn, new ParsePosition(this.prefix.length()))), p);
-					} catch (DateTimeParseException ignored) {
-					}
+				RolledFile f = parse(p);
+				if (f != null) {
+					files.add(f);
+					if (p.equals(current))
+						hasCurrent = true;
 				}
 			}
 		}
 
-		if (this.file != null)
-			files.put(this.currentDate, this.file);
-
-		int toDelete = files.size() - this.maxFiles;
+		// The current file is kept even if it has not been created yet.
+		int toDelete = files.size() + (hasCurrent || current == null ? 0 : 1) - this.maxFiles;
 		if (toDelete <= 0)
 			return;
 
-		for (Path p : files.values()) {
-			Files.delete(p);
+		files.sort(Comparator.comparing((RolledFile f) -> f.date).thenComparingInt(f -> f.index));
+		for (RolledFile f : files) {
+			if (f.path.equals(current))
+				continue;
+			// Another maintenance task may have compressed or deleted the file.
+			Files.deleteIfExists(f.path);
 			toDelete--;
 			if (toDelete == 0)
 				break;
 		}
 	}
 
-	public BufferedWriter getWriter() throws IOException {
-		if (this.writer == null)
-			this.writer = Files.newBufferedWriter(getFile(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+	private RolledFile parse(Path p) {
+		String fn = p.getFileName().toString();
+		if (fn.endsWith(COMPRESSED_SUFFIX))
+			fn = fn.substring(0, fn.length() - COMPRESSED_SUFFIX.length());
+		if (!fn.startsWith(this.prefix) || !fn.endsWith(this.suffix))
+			return null;
+
+		ParsePosition position = new ParsePosition(this.prefix.length());
+		LocalDate date;
+		try {
+			date = LocalDate.from(this.formatter.parse(fn, position));
+		} catch (DateTimeParseException e) {
+			return null;
+		}
+
+		int end = fn.length() - this.suffix.length();
+		int start = position.getIndex();
+		if (start == end)
+			return new RolledFile(p, date, 0);
+		if (start > end || fn.charAt(start) != '.')
+			return null;
+
+		try {
+			int index = Integer.parseInt(fn.substring(start + 1, end));
+			return index > 0 ? new RolledFile(p, date, index) : null;
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	public synchronized BufferedWriter getWriter() throws IOException {
+		if (this.writer == null) {
+			Path file = getFile();
+			OutputStream out;
+			if (this.gzip) {
+				// The file may have been written before this appender was closed.
+				skipFullFiles();
+				file = this.file;
+				this.stream = new CountingOutputStream(Files.newOutputStream(file, StandardOpenOption.CREATE_NEW), 0);
+				out = DeflateFileAppender.gzip(this.stream, Deflater.DEFAULT_COMPRESSION);
+			} else {
+				this.stream = new CountingOutputStream(Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND), Files.size(file));
+				out = this.stream;
+			}
+			this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8.newEncoder()));
+			this.flushPolicy.register(this);
+		}
 		return this.writer;
 	}
 
-	public Path getFile() {
+	public synchronized Path getFile() {
 		if (this.file == null)
 			throw new IllegalStateException();
 		return this.file;
 	}
 
 	@Override
-	public void close() {
+	public synchronized void flush() {
 		if (this.writer == null)
 			return;
+
+		try {
+			this.writer.flush();
+		} catch (IOException ignored) {
+		}
+	}
+
+	@Override
+	public synchronized void close() {
+		if (this.writer == null)
+			return;
+
+		this.flushPolicy.unregister(this);
 		try {
 			this.writer.close();
 		} catch (IOException ignored) {
 		}
 		this.writer = null;
+		this.stream = null;
+	}
+
+	private static synchronized ExecutorService getMaintenanceExecutor() {
+		if (maintenanceExecutor == null) {
+			maintenanceExecutor = Executors.newSingleThreadExecutor(r -> {
+				Thread t = new Thread(r, "Log maintenance");
+				t.setDaemon(true);
+				return t;
+			});
+		}
+		return maintenanceExecutor;
+	}
+
+	/**
+	 * Creates an executor suitable for maintenance of rolled files.
+	 * Threads are daemon threads so that pending tasks do not prevent the JVM from exiting.
+	 *
+	 * @param threads  The number of threads.
+	 * @param priority The priority of the threads.
+	 * @return The executor.
+	 */
+	public static ExecutorService newMaintenanceExecutor(int threads, int priority) {
+		if (threads <= 0)
+			throw new IllegalArgumentException("threads");
+		if (priority < Thread.MIN_PRIORITY || priority > Thread.MAX_PRIORITY)
+			throw new IllegalArgumentException("priority");
+
+		AtomicInteger counter = new AtomicInteger();
+		return Executors.newFixedThreadPool(threads, r -> {
+			Thread t = new Thread(r, "Log maintenance-" + counter.incrementAndGet());
+			t.setDaemon(true);
+			t.setPriority(priority);
+			return t;
+		});
 	}
 
 	public static Builder builder() {
 		return new Builder();
 	}
 
+	private static final class RolledFile {
+		private final Path path;
+		private final LocalDate date;
+		private final int index;
+
+		private RolledFile(Path path, LocalDate date, int index) {
+			this.path = path;
+			this.date = date;
+			this.index = index;
+		}
+	}
+
+	// Counts the bytes actually written to the file.
+	private static final class CountingOutputStream extends FilterOutputStream {
+		private long count;
+
+		private CountingOutputStream(OutputStream out, long count) {
+			super(out);
+			this.count = count;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			this.out.write(b);
+			this.count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			this.out.write(b, off, len);
+			this.count += len;
+		}
+	}
+
 	public static class Builder {
 		private Path directory;
 		private DateTimeFormatter formatter = DEFAULT_FORMATTER;
 		private Clock clock = DEFAULT_CLOCK;
 		private String prefix = "", suffix = ".log";
 		private int maxFiles = 0;
+		// Defaults to ALWAYS, or to the block size of DeflateFileAppender in gzip mode.
+		private FlushPolicy flushPolicy;
+		private long maxFileSize = 0;
+		private boolean compress, gzip;
+		private ExecutorService executor;
 
 		private Builder() {}
 
@@ -197,8 +582,36 @@ public final class DatedRollingFileAppender implements StringAppender {
 			return this;
 		}
 
+		public Builder flushPolicy(FlushPolicy value) {
+			this.flushPolicy = value;
+			return this;
+		}
+
+		public Builder maxFileSize(long value) {
+			this.maxFileSize = value;
+			return this;
+		}
+
+		public Builder compress(boolean value) {
+			this.compress = value;
+			return this;
+		}
+
+		public Builder gzip(boolean value) {
+			this.gzip = value;
+			return this;
+		}
+
+		public Builder executor(ExecutorService value) {
+			this.executor = value;
+			return this;
+		}
+
 		public DatedRollingFileAppender build() {
-			return new DatedRollingFileAppender(this.directory, this.formatter, this.clock, this.prefix, this.suffix, this.maxFiles);
+			FlushPolicy flushPolicy = this.flushPolicy;
+			if (flushPolicy == null)
+				flushPolicy = this.gzip ? FlushPolicy.size(DeflateFileAppender.DEFAULT_BLOCK_SIZE) : FlushPolicy.ALWAYS;
+			return new DatedRollingFileAppender(this.directory, this.formatter, this.clock, this.prefix, this.suffix, this.maxFiles, flushPolicy, this.maxFileSize, this.compress, this.gzip, this.executor);
 		}
 	}
 }
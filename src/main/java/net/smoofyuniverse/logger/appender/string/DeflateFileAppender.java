@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.smoofyuniverse.logger.appender.string;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A {@link FileAppender} writing gzip-compressed output.
+ * <p>
+ * Each flush completes the current deflate block with {@link Deflater#SYNC_FLUSH},
+ * so that all data flushed so far can be read with tools such as {@code zcat} while the file is still being written.
+ * Flushing less often gives a better compression ratio, hence the default flush policy flushes every 64 KiB.
+ * Appending is not supported: a member left unterminated by a crash would make the following members unreadable.
+ * An existing file is truncated, unless {@link StandardOpenOption#CREATE_NEW} is given.
+ */
+public class DeflateFileAppender extends FileAppender {
+	public static final int DEFAULT_BLOCK_SIZE = 1 << 16;
+
+	public final int level;
+
+	public DeflateFileAppender(Path file, StandardOpenOption... options) {
+		this(file, StandardCharsets.UTF_8, FlushPolicy.size(DEFAULT_BLOCK_SIZE), Deflater.DEFAULT_COMPRESSION, options);
+	}
+
+	/**
+	 * @param level   The compression level, from 0 to 9, or -1 for the default level.
+	 * @param options The options, {@link StandardOpenOption#APPEND} is rejected.
+	 */
+	public DeflateFileAppender(Path file, Charset charset, FlushPolicy flushPolicy, int level, StandardOpenOption... options) {
+		super(file, charset, flushPolicy, options);
+		for (StandardOpenOption option : options) {
+			if (option == StandardOpenOption.APPEND)
+				throw new IllegalArgumentException("options");
+		}
+		if (level < -1 || level > 9)
+			throw new IllegalArgumentException("level");
+		this.level = level;
+	}
+
+	@Override
+	protected BufferedWriter openWriter() throws IOException {
+		return new BufferedWriter(new OutputStreamWriter(gzip(Files.newOutputStream(this.file, this.options), this.level), this.charset.newEncoder()));
+	}
+
+	// Wraps a stream in a gzip stream that completes the current block on flush.
+	static OutputStream gzip(OutputStream out, int level) throws IOException {
+		try {
+			return new GZIPOutputStream(out, DEFAULT_BLOCK_SIZE, true) {
+				{
+					this.def.setLevel(level);
+				}
+			};
+		} catch (IOException e) {
+			out.close();
+			throw e;
+		}
+	}
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.smoofyuniverse.logger.appender.string;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A {@link StringAppender} encoding text into a {@link ByteBuffer}.
+ * ASCII characters are copied directly when the charset is ASCII-compatible, other characters go through a reused encoder.
+ */
+abstract class EncodingAppender implements StringAppender {
+	public final Charset charset;
+
+	private final CharsetEncoder encoder;
+	private final boolean asciiCompatible;
+
+	/**
+	 * The current buffer.
+	 */
+	protected ByteBuffer buffer;
+
+	protected EncodingAppender(Charset charset) {
+		if (charset == null)
+			throw new IllegalArgumentException("charset");
+
+		this.charset = charset;
+		this.encoder = charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+		this.asciiCompatible = charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.US_ASCII) || charset.equals(StandardCharsets.ISO_8859_1);
+	}
+
+	@Override
+	public void accept(String message) {
+		accept((CharSequence) message);
+	}
+
+	@Override
+	public synchronized void accept(CharSequence message) {
+		try {
+			open();
+			encode(message);
+			written(message.length());
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	public synchronized void accept(char[] buffer, int offset, int length) {
+		try {
+			open();
+			encode(buffer, offset, length);
+			written(length);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private void encode(CharSequence message) throws IOException {
+		int i = 0, length = message.length();
+
+		if (this.asciiCompatible) {
+			ByteBuffer buffer = this.buffer;
+			for (; i < length; i++) {
+				char c = message.charAt(i);
+				if (c >= 0x80)
+					break;
+				if (!buffer.hasRemaining()) {
+					overflow();
+					buffer = this.buffer;
+				}
+				buffer.put((byte) c);
+			}
+			if (i == length)
+				return;
+		}
+
+		encode(CharBuffer.wrap(message, i, length));
+	}
+
+	private void encode(char[] chars, int offset, int length) throws IOException {
+		int i = offset, end = offset + length;
+
+		if (this.asciiCompatible) {
+			ByteBuffer buffer = this.buffer;
+			for (; i < end; i++) {
+				char c = chars[i];
+				if (c >= 0x80)
+					break;
+				if (!buffer.hasRemaining()) {
+					overflow();
+					buffer = this.buffer;
+				}
+				buffer.put((byte) c);
+			}
+			if (i == end)
+				return;
+		}
+
+		encode(CharBuffer.wrap(chars, i, end - i));
+	}
+
+	private void encode(CharBuffer in) throws IOException {
+		this.encoder.reset();
+		while (true) {
+			CoderResult r = this.encoder.encode(in, this.buffer, true);
+			if (r.isUnderflow())
+				break;
+			if (r.isOverflow())
+				overflow();
+			else
+				r.throwException();
+		}
+		while (this.encoder.flush(this.buffer).isOverflow())
+			overflow();
+	}
+
+	/**
+	 * Prepares the buffer before encoding a message.
+	 *
+	 * @throws IOException if an I/O error occurs.
+	 */
+	protected abstract void open() throws IOException;
+
+	/**
+	 * Called after a message has been encoded.
+	 *
+	 * @param length The length of the message.
+	 * @throws IOException if an I/O error occurs.
+	 */
+	protected void written(int length) throws IOException {}
+
+	/**
+	 * Makes room in the buffer when it is full.
+	 * The buffer field may be replaced.
+	 *
+	 * @throws IOException if an I/O error occurs.
+	 */
+	protected abstract void overflow() throws IOException;
+}
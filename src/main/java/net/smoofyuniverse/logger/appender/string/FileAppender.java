@@ -38,6 +38,7 @@ public class FileAppender implements StringAppender {
 
 	public final StandardOpenOption[] options;
 	public final Charset charset;
+	public final FlushPolicy flushPolicy;
 	public final Path file;
 
 	public FileAppender(Path file, StandardOpenOption... options) {
@@ -45,33 +46,82 @@ public class FileAppender implements StringAppender {
 	}
 
 	public FileAppender(Path file, Charset charset, StandardOpenOption... options) {
+		this(file, charset, FlushPolicy.ALWAYS, options);
+	}
+
+	public FileAppender(Path file, Charset charset, FlushPolicy flushPolicy, StandardOpenOption... options) {
 		if (file == null)
 			throw new IllegalArgumentException("file");
 		if (charset == null)
 			throw new IllegalArgumentException("charset");
+		if (flushPolicy == null)
+			throw new IllegalArgumentException("flushPolicy");
 		if (options == null)
 			throw new IllegalArgumentException("options");
 
 		this.file = file;
 		this.charset = charset;
+		this.flushPolicy = flushPolicy;
 		this.options = options;
 	}
 
 	@Override
-	public void accept(String message) {
+	public synchronized void accept(String message) {
 		try {
-			if (this.writer == null)
-				this.writer = Files.newBufferedWriter(this.file, this.charset, this.options);
+			getWriter().write(message);
+			if (this.flushPolicy.shouldFlush(message.length()))
+				this.writer.flush();
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
 
-			this.writer.write(message);
-			this.writer.flush();
+	@Override
+	public synchronized void accept(char[] buffer, int offset, int length) {
+		try {
+			getWriter().write(buffer, offset, length);
+			if (this.flushPolicy.shouldFlush(length))
+				this.writer.flush();
 		} catch (IOException e) {
 			throw new RuntimeException(e);
 		}
 	}
 
+	private BufferedWriter getWriter() throws IOException {
+		if (this.writer == null) {
+			this.writer = openWriter();
+			this.flushPolicy.register(this);
+		}
+		return this.writer;
+	}
+
+	/**
+	 * Opens the writer to the file.
+	 *
+	 * @return The writer.
+	 * @throws IOException if an I/O error occurs.
+	 */
+	protected BufferedWriter openWriter() throws IOException {
+		return Files.newBufferedWriter(this.file, this.charset, this.options);
+	}
+
 	@Override
-	public void close() {
+	public synchronized void flush() {
+		if (this.writer == null)
+			return;
+
+		try {
+			this.writer.flush();
+		} catch (IOException ignored) {
+		}
+	}
+
+	@Override
+	public synchronized void close() {
+		if (this.writer == null)
+			return;
+
+		this.flushPolicy.unregister(this);
 		try {
 			this.writer.close();
 		} catch (IOException ignored) {
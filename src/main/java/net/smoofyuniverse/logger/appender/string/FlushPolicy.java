@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.smoofyuniverse.logger.appender.string;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A policy deciding when a {@link StringAppender} flushes its buffered output.
+ */
+public interface FlushPolicy {
+	/**
+	 * Flushes after every message.
+	 */
+	FlushPolicy ALWAYS = length -> true;
+
+	/**
+	 * Never flushes, except when the buffer is full or when explicitly requested.
+	 */
+	FlushPolicy NEVER = length -> false;
+
+	/**
+	 * Called after a message has been written.
+	 *
+	 * @param length The length of the message.
+	 * @return Whether the appender should flush now.
+	 */
+	boolean shouldFlush(int length);
+
+	/**
+	 * Called when an appender starts using this policy.
+	 *
+	 * @param appender The appender.
+	 */
+	default void register(StringAppender appender) {}
+
+	/**
+	 * Called when an appender stops using this policy.
+	 *
+	 * @param appender The appender.
+	 */
+	default void unregister(StringAppender appender) {}
+
+	/**
+	 * Creates a policy flushing once the given number of characters has been written since the last flush.
+	 * The returned policy is stateful and must not be shared between appenders.
+	 *
+	 * @param size The number of characters.
+	 * @return The policy.
+	 */
+	static FlushPolicy size(int size) {
+		if (size <= 0)
+			throw new IllegalArgumentException("size");
+
+		AtomicInteger pending = new AtomicInteger();
+		return length -> {
+			if (pending.addAndGet(length) < size)
+				return false;
+			pending.set(0);
+			return true;
+		};
+	}
+
+	/**
+	 * Creates a policy flushing registered appenders periodically from a shared background thread.
+	 *
+	 * @param millis The period in milliseconds.
+	 * @return The policy.
+	 */
+	static FlushPolicy interval(long millis) {
+		if (millis <= 0)
+			throw new IllegalArgumentException("millis");
+		return new Interval(millis);
+	}
+
+	/**
+	 * A {@link FlushPolicy} flushing periodically.
+	 */
+	final class Interval implements FlushPolicy {
+		private static ScheduledExecutorService executor;
+
+		public final long millis;
+		private final Map<StringAppender, ScheduledFuture<?>> tasks = new ConcurrentHashMap<>();
+
+		private Interval(long millis) {
+			this.millis = millis;
+		}
+
+		@Override
+		public boolean shouldFlush(int length) {
+			return false;
+		}
+
+		@Override
+		public void register(StringAppender appender) {
+			this.tasks.computeIfAbsent(appender, a -> getExecutor().scheduleAtFixedRate(a::flush, this.millis, this.millis, TimeUnit.MILLISECONDS));
+		}
+
+		@Override
+		public void unregister(StringAppender appender) {
+			ScheduledFuture<?> task = this.tasks.remove(appender);
+			if (task != null)
+				task.cancel(false);
+		}
+
+		private static synchronized ScheduledExecutorService getExecutor() {
+			if (executor == null) {
+				executor = Executors.newSingleThreadScheduledExecutor(r -> {
+					Thread t = new Thread(r, "Log flusher");
+					t.setDaemon(true);
+					return t;
+				});
+			}
+			return executor;
+		}
+	}
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.smoofyuniverse.logger.appender.string;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A {@link StringAppender} writing to a file through a sequence of memory-mapped segments of fixed size.
+ * A new segment is mapped when the current one is full.
+ * Written data is handed to the operating system immediately and survives a crash of the JVM.
+ * The file is truncated to its real length when closed, until then it may end with unused zero bytes.
+ * When the file is reopened, writing resumes after the last non-zero byte, so that the padding left by a crash is overwritten.
+ * <p>
+ * Some systems, such as Windows, refuse to truncate a file while segments are still mapped:
+ * the padding then remains after closing, until the file is reopened and closed again.
+ */
+public class MappedFileAppender extends EncodingAppender {
+	public static final int DEFAULT_SEGMENT_SIZE = 1 << 24;
+
+	public final StandardOpenOption[] options;
+	public final int segmentSize;
+	public final Path file;
+
+	private final Set<OpenOption> openOptions;
+	private FileChannel channel;
+	private long segmentStart;
+
+	public MappedFileAppender(Path file, StandardOpenOption... options) {
+		this(file, StandardCharsets.UTF_8, DEFAULT_SEGMENT_SIZE, options);
+	}
+
+	public MappedFileAppender(Path file, Charset charset, int segmentSize, StandardOpenOption... options) {
+		super(charset);
+		if (file == null)
+			throw new IllegalArgumentException("file");
+		if (segmentSize < 16)
+			throw new IllegalArgumentException("segmentSize");
+		if (options == null)
+			throw new IllegalArgumentException("options");
+
+		this.file = file;
+		this.segmentSize = segmentSize;
+		this.options = options;
+
+		Set<OpenOption> set = new HashSet<>();
+		if (options.length == 0) {
+			set.add(StandardOpenOption.CREATE);
+			set.add(StandardOpenOption.TRUNCATE_EXISTING);
+		} else {
+			Collections.addAll(set, options);
+		}
+		// Mapping in read-write mode requires both options.
+		set.add(StandardOpenOption.READ);
+		set.add(StandardOpenOption.WRITE);
+		set.remove(StandardOpenOption.APPEND);
+		this.openOptions = set;
+	}
+
+	@Override
+	protected void open() throws IOException {
+		if (this.channel == null) {
+			this.channel = FileChannel.open(this.file, this.openOptions);
+			map(findEnd());
+		}
+	}
+
+	@Override
+	protected void overflow() throws IOException {
+		map(this.segmentStart + this.buffer.position());
+	}
+
+	// Only the last segment may end with padding, text never ends with a zero byte.
+	private long findEnd() throws IOException {
+		long end = this.channel.size();
+		long limit = Math.max(0, end - this.segmentSize);
+		ByteBuffer chunk = ByteBuffer.allocate(8192);
+		while (end > limit) {
+			int length = (int) Math.min(chunk.capacity(), end - limit);
+			long start = end - length;
+			chunk.clear();
+			chunk.limit(length);
+			while (chunk.hasRemaining()) {
+				if (this.channel.read(chunk, start + chunk.position()) < 0)
+					break;
+			}
+			for (int i = chunk.position() - 1; i >= 0; i--) {
+				if (chunk.get(i) != 0)
+					return start + i + 1;
+			}
+			end = start;
+		}
+		return end;
+	}
+
+	private void map(long position) throws IOException {
+		this.segmentStart = position;
+		this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, position, this.segmentSize);
+	}
+
+	/**
+	 * Gets the number of bytes written to the file.
+	 *
+	 * @return The length.
+	 */
+	public synchronized long getLength() {
+		return this.channel == null ? 0 : this.segmentStart + this.buffer.position();
+	}
+
+	/**
+	 * Forces the current segment to be written to the storage device.
+	 */
+	@Override
+	public synchronized void flush() {
+		if (this.channel != null)
+			((MappedByteBuffer) this.buffer).force();
+	}
+
+	@Override
+	public synchronized void close() {
+		if (this.channel == null)
+			return;
+
+		try {
+			this.channel.truncate(this.segmentStart + this.buffer.position());
+		} catch (IOException ignored) {
+			// The padding is skipped when the file is reopened.
+		}
+		try {
+			this.channel.close();
+		} catch (IOException ignored) {
+		}
+		this.buffer = null;
+		this.channel = null;
+	}
+}
@@ -49,6 +49,24 @@ public class ParentStringAppender implements StringAppender {
 			a.accept(message);
 	}
 
+	@Override
+	public void accept(CharSequence message) {
+		for (StringAppender a : this.children)
+			a.accept(message);
+	}
+
+	@Override
+	public void accept(char[] buffer, int offset, int length) {
+		for (StringAppender a : this.children)
+			a.accept(buffer, offset, length);
+	}
+
+	@Override
+	public void flush() {
+		for (StringAppender a : this.children)
+			a.flush();
+	}
+
 	@Override
 	public void close() {
 		for (StringAppender a : this.children)
@@ -41,6 +41,11 @@ public class PrintStreamAppender implements StringAppender {
 		this.stream.print(message);
 	}
 
+	@Override
+	public void flush() {
+		this.stream.flush();
+	}
+
 	@Override
 	public void close() {
 		this.stream.close();
@@ -38,6 +38,33 @@ public interface StringAppender extends Consumer<String>, Closeable {
 	@Override
 	void accept(String message);
 
+	/**
+	 * Appends the character sequence.
+	 * The default implementation converts it to a string.
+	 *
+	 * @param message The character sequence.
+	 */
+	default void accept(CharSequence message) {
+		accept(message.toString());
+	}
+
+	/**
+	 * Appends the characters.
+	 * The default implementation converts them to a string.
+	 *
+	 * @param buffer The buffer.
+	 * @param offset The offset of the first character.
+	 * @param length The number of characters.
+	 */
+	default void accept(char[] buffer, int offset, int length) {
+		accept(new String(buffer, offset, length));
+	}
+
+	/**
+	 * Flushes any buffered output.
+	 */
+	default void flush() {}
+
 	@Override
 	void close();
 }
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.smoofyuniverse.logger.binary;
+
+/**
+ * Constants of the binary log format.
+ * <p>
+ * A stream is a sequence of records, each starting with a type byte.
+ * Integers are written as unsigned LEB128 varints, timestamps as zigzag-encoded deltas from the previous message,
+ * and strings as a varint byte length followed by UTF-8 bytes.
+ * <ul>
+ * <li>{@link #HEADER}: magic, version. Resets the state of the stream, so that appended streams can be read as one.</li>
+ * <li>{@link #LOGGER}: logger id, name.</li>
+ * <li>{@link #THREAD}: thread id, name. A thread can be redefined when renamed.</li>
+ * <li>{@link #MESSAGE} and {@link #MESSAGE_WITH_STACK_TRACE}: level ordinal byte, timestamp delta, logger id, thread id, text, then stack trace if present.</li>
+ * </ul>
+ */
+final class BinaryFormat {
+	static final int MAGIC = 0x534C4F47;
+	static final int VERSION = 1;
+
+	static final int HEADER = 0, LOGGER = 1, THREAD = 2, MESSAGE = 3, MESSAGE_WITH_STACK_TRACE = 4;
+
+	private BinaryFormat() {}
+}
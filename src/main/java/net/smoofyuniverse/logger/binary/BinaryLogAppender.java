@@ -0,0 +1,289 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.smoofyuniverse.logger.binary;
+
+import net.smoofyuniverse.logger.appender.log.LogAppender;
+import net.smoofyuniverse.logger.core.ILogger;
+import net.smoofyuniverse.logger.core.LogLevel;
+import net.smoofyuniverse.logger.core.LogMessage;
+import net.smoofyuniverse.logger.core.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import static net.smoofyuniverse.logger.binary.BinaryFormat.*;
+
+/**
+ * A {@link LogAppender} encoding messages in the binary format described in {@link BinaryFormat}.
+ * Messages are stored without formatting and can be rendered later with {@link BinaryLogReader}.
+ * <p>
+ * Logger and thread names are written once in definition records and referenced by id in messages.
+ * Loggers of a {@link net.smoofyuniverse.logger.core.LoggerFactory} are resolved through their id without hashing.
+ */
+public class BinaryLogAppender implements LogAppender {
+	public final Path file;
+	public final StandardOpenOption[] options;
+	/**
+	 * Messages with this level or higher are flushed immediately.
+	 * May be null.
+	 */
+	public final LogLevel flushLevel;
+
+	private OutputStream out;
+	private byte[] buffer = new byte[1024];
+	private int position;
+
+	private final Map<ILogger, Integer> loggerIds = new IdentityHashMap<>();
+	// Stream ids of factory loggers, indexed by their factory id.
+	private Logger[] factoryLoggers = new Logger[64];
+	private int[] factoryLoggerIds = new int[64];
+	private final Map<Long, String> threadNames = new HashMap<>();
+	private Thread lastThread;
+	private String lastThreadName;
+	private long lastTimestamp;
+	private boolean started;
+
+	public BinaryLogAppender(OutputStream out) {
+		this(out, null);
+	}
+
+	public BinaryLogAppender(OutputStream out, LogLevel flushLevel) {
+		if (out == null)
+			throw new IllegalArgumentException("out");
+		this.out = out;
+		this.file = null;
+		this.options = null;
+		this.flushLevel = flushLevel;
+	}
+
+	public BinaryLogAppender(Path file, StandardOpenOption... options) {
+		this(file, null, options);
+	}
+
+	public BinaryLogAppender(Path file, LogLevel flushLevel, StandardOpenOption... options) {
+		if (file == null)
+			throw new IllegalArgumentException("file");
+		if (options == null)
+			throw new IllegalArgumentException("options");
+		this.file = file;
+		this.options = options;
+		this.flushLevel = flushLevel;
+	}
+
+	@Override
+	public synchronized void accept(LogMessage message) {
+		// Rendering may throw, it must happen before any state of the stream is updated.
+		String text = message.getText();
+		String stackTrace = message.getStackTrace();
+
+		try {
+			OutputStream out = getOutputStream();
+			int loggerId = getLoggerId(message.getLogger());
+			long threadId = getThreadId(message.getThread());
+
+			writeByte(stackTrace.isEmpty() ? MESSAGE : MESSAGE_WITH_STACK_TRACE);
+			writeByte(message.getLevel().ordinal());
+			long delta = message.getTimestamp() - this.lastTimestamp;
+			writeVarLong((delta << 1) ^ (delta >> 63));
+			this.lastTimestamp = message.getTimestamp();
+			writeVarLong(loggerId);
+			writeVarLong(threadId);
+			writeString(text);
+			if (!stackTrace.isEmpty())
+				writeString(stackTrace);
+
+			out.write(this.buffer, 0, this.position);
+			if (this.flushLevel != null && message.getLevel().ordinal() >= this.flushLevel.ordinal())
+				out.flush();
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		} finally {
+			this.position = 0;
+		}
+	}
+
+	private OutputStream getOutputStream() throws IOException {
+		if (this.out == null)
+			this.out = new BufferedOutputStream(Files.newOutputStream(this.file, this.options), 1 << 16);
+		if (!this.started) {
+			this.started = true;
+			writeByte(HEADER);
+			writeByte(MAGIC >>> 24);
+			writeByte(MAGIC >>> 16);
+			writeByte(MAGIC >>> 8);
+			writeByte(MAGIC);
+			writeByte(VERSION);
+		}
+		return this.out;
+	}
+
+	private int getLoggerId(ILogger logger) {
+		if (logger instanceof Logger) {
+			int factoryId = ((Logger) logger).getId();
+			if (factoryId < this.factoryLoggers.length && this.factoryLoggers[factoryId] == logger)
+				return this.factoryLoggerIds[factoryId];
+		}
+
+		Integer id = this.loggerIds.get(logger);
+		if (id == null) {
+			String name = logger.getName();
+			id = this.loggerIds.size();
+			this.loggerIds.put(logger, id);
+			writeByte(LOGGER);
+			writeVarLong(id);
+			writeString(name);
+		}
+
+		if (logger instanceof Logger) {
+			int factoryId = ((Logger) logger).getId();
+			if (factoryId >= this.factoryLoggers.length) {
+				int length = Math.max(factoryId + 1, this.factoryLoggers.length * 2);
+				this.factoryLoggers = Arrays.copyOf(this.factoryLoggers, length);
+				this.factoryLoggerIds = Arrays.copyOf(this.factoryLoggerIds, length);
+			}
+			// Loggers of another factory may share the same id and replace this entry.
+			this.factoryLoggers[factoryId] = (Logger) logger;
+			this.factoryLoggerIds[factoryId] = id;
+		}
+		return id;
+	}
+
+	private long getThreadId(Thread thread) {
+		String name = thread.getName();
+		if (thread != this.lastThread || !name.equals(this.lastThreadName)) {
+			String previous = this.threadNames.put(thread.getId(), name);
+			if (!name.equals(previous)) {
+				writeByte(THREAD);
+				writeVarLong(thread.getId());
+				writeString(name);
+			}
+			this.lastThread = thread;
+			this.lastThreadName = name;
+		}
+		return thread.getId();
+	}
+
+	private void ensureCapacity(int length) {
+		if (this.position + length > this.buffer.length)
+			this.buffer = Arrays.copyOf(this.buffer, Math.max(this.position + length, this.buffer.length * 2));
+	}
+
+	private void writeByte(int value) {
+		ensureCapacity(1);
+		this.buffer[this.position++] = (byte) value;
+	}
+
+	private void writeVarLong(long value) {
+		ensureCapacity(10);
+		while ((value & ~0x7FL) != 0) {
+			this.buffer[this.position++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		this.buffer[this.position++] = (byte) value;
+	}
+
+	// Encodes UTF-8 directly into the buffer, unpaired surrogates are replaced by '?'.
+	private void writeString(String value) {
+		int n = value.length(), length = n;
+		for (int i = 0; i < n; i++) {
+			char c = value.charAt(i);
+			if (c >= 0x80) {
+				if (c < 0x800)
+					length++;
+				else if (!Character.isSurrogate(c))
+					length += 2;
+				else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(value.charAt(i + 1))) {
+					length += 2;
+					i++;
+				}
+			}
+		}
+
+		writeVarLong(length);
+		ensureCapacity(length);
+		byte[] b = this.buffer;
+		int p = this.position;
+		for (int i = 0; i < n; i++) {
+			char c = value.charAt(i);
+			if (c < 0x80) {
+				b[p++] = (byte) c;
+			} else if (c < 0x800) {
+				b[p++] = (byte) (0xC0 | (c >> 6));
+				b[p++] = (byte) (0x80 | (c & 0x3F));
+			} else if (!Character.isSurrogate(c)) {
+				b[p++] = (byte) (0xE0 | (c >> 12));
+				b[p++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+				b[p++] = (byte) (0x80 | (c & 0x3F));
+			} else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(value.charAt(i + 1))) {
+				int cp = Character.toCodePoint(c, value.charAt(++i));
+				b[p++] = (byte) (0xF0 | (cp >> 18));
+				b[p++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+				b[p++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+				b[p++] = (byte) (0x80 | (cp & 0x3F));
+			} else {
+				b[p++] = '?';
+			}
+		}
+		this.position = p;
+	}
+
+	@Override
+	public synchronized void flush() {
+		if (this.out == null)
+			return;
+
+		try {
+			this.out.flush();
+		} catch (IOException ignored) {
+		}
+	}
+
+	@Override
+	public synchronized void close() {
+		if (this.out == null)
+			return;
+
+		try {
+			this.out.close();
+		} catch (IOException ignored) {
+		}
+		// A stream opened from a file can be reopened, with a new header.
+		if (this.file != null) {
+			this.out = null;
+			this.loggerIds.clear();
+			Arrays.fill(this.factoryLoggers, null);
+			this.threadNames.clear();
+			this.lastThread = null;
+			this.lastThreadName = null;
+			this.lastTimestamp = 0;
+			this.started = false;
+		}
+	}
+}
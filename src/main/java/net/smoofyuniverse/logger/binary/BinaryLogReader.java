@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.smoofyuniverse.logger.binary;
+
+import net.smoofyuniverse.logger.appender.log.FormattedAppender;
+import net.smoofyuniverse.logger.appender.log.LogAppender;
+import net.smoofyuniverse.logger.appender.string.FileAppender;
+import net.smoofyuniverse.logger.appender.string.FlushPolicy;
+import net.smoofyuniverse.logger.appender.string.PrintStreamAppender;
+import net.smoofyuniverse.logger.core.ILogger;
+import net.smoofyuniverse.logger.core.LogLevel;
+import net.smoofyuniverse.logger.core.LogMessage;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static net.smoofyuniverse.logger.binary.BinaryFormat.*;
+
+/**
+ * A streaming decoder of the binary format written by {@link BinaryLogAppender}.
+ * <p>
+ * Decoded messages have their original text and stack trace but no throwable.
+ * Their loggers only provide a name and their threads are placeholders, unstarted, with the original name.
+ */
+public class BinaryLogReader implements Closeable {
+	private static final LogLevel[] LEVELS = LogLevel.values();
+
+	private final InputStream in;
+	private final List<ILogger> loggers = new ArrayList<>();
+	private final Map<Long, Thread> threads = new HashMap<>();
+	private byte[] buffer = new byte[1024];
+	private long lastTimestamp;
+	private boolean started;
+
+	public BinaryLogReader(InputStream in) {
+		if (in == null)
+			throw new IllegalArgumentException("in");
+		this.in = in instanceof BufferedInputStream ? in : new BufferedInputStream(in, 1 << 16);
+	}
+
+	/**
+	 * Reads the next message.
+	 *
+	 * @return The message, or null if the end of the stream is reached.
+	 * @throws IOException if an I/O error occurs or the stream is malformed.
+	 */
+	public LogMessage read() throws IOException {
+		while (true) {
+			int type = this.in.read();
+			if (type == -1)
+				return null;
+
+			if (!this.started && type != HEADER)
+				throw new IOException("Missing header");
+
+			switch (type) {
+				case HEADER:
+					int magic = (readByte() << 24) | (readByte() << 16) | (readByte() << 8) | readByte();
+					if (magic != MAGIC)
+						throw new IOException("Invalid magic");
+					int version = readByte();
+					if (version != VERSION)
+						throw new IOException("Unsupported version: " + version);
+					this.loggers.clear();
+					this.threads.clear();
+					this.lastTimestamp = 0;
+					this.started = true;
+					break;
+				case LOGGER:
+					int id = (int) readVarLong();
+					if (id != this.loggers.size())
+						throw new IOException("Unexpected logger id: " + id);
+					this.loggers.add(new NamedLogger(readString()));
+					break;
+				case THREAD:
+					long threadId = readVarLong();
+					this.threads.put(threadId, new Thread(readString()));
+					break;
+				case MESSAGE:
+				case MESSAGE_WITH_STACK_TRACE:
+					return readMessage(type == MESSAGE_WITH_STACK_TRACE);
+				default:
+					throw new IOException("Unknown record type: " + type);
+			}
+		}
+	}
+
+	private LogMessage readMessage(boolean hasStackTrace) throws IOException {
+		int ordinal = readByte();
+		if (ordinal >= LEVELS.length)
+			throw new IOException("Unknown level: " + ordinal);
+
+		long delta = readVarLong();
+		this.lastTimestamp += (delta >>> 1) ^ -(delta & 1);
+
+		long loggerId = readVarLong();
+		if (loggerId >= this.loggers.size())
+			throw new IOException("Undefined logger: " + loggerId);
+
+		long threadId = readVarLong();
+		Thread thread = this.threads.get(threadId);
+		if (thread == null)
+			throw new IOException("Undefined thread: " + threadId);
+
+		String text = readString();
+		ILogger logger = this.loggers.get((int) loggerId);
+		if (hasStackTrace)
+			return new LogMessage(logger, LEVELS[ordinal], this.lastTimestamp, thread, null, text, readString());
+		return new LogMessage(logger, LEVELS[ordinal], this.lastTimestamp, thread, null, text);
+	}
+
+	private int readByte() throws IOException {
+		int b = this.in.read();
+		if (b == -1)
+			throw new EOFException();
+		return b;
+	}
+
+	private long readVarLong() throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = readByte();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return value;
+		}
+		throw new IOException("Malformed varint");
+	}
+
+	private String readString() throws IOException {
+		long length = readVarLong();
+		if (length > Integer.MAX_VALUE - 8)
+			throw new IOException("String too long: " + length);
+
+		int n = (int) length;
+		if (this.buffer.length < n)
+			this.buffer = new byte[Math.max(n, this.buffer.length * 2)];
+
+		int offset = 0;
+		while (offset < n) {
+			int read = this.in.read(this.buffer, offset, n - offset);
+			if (read == -1)
+				throw new EOFException();
+			offset += read;
+		}
+		return new String(this.buffer, 0, n, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Reads all remaining messages and appends them.
+	 *
+	 * @param appender The appender.
+	 * @throws IOException if an I/O error occurs or the stream is malformed.
+	 */
+	public void readAll(LogAppender appender) throws IOException {
+		LogMessage message;
+		while ((message = read()) != null)
+			appender.accept(message);
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.in.close();
+	}
+
+	/**
+	 * Converts a binary log file to text using the default format.
+	 * Files ending with {@code .gz} are decompressed.
+	 * Usage: {@code BinaryLogReader <input> [output]}, writing to the standard output when no output is given.
+	 *
+	 * @param args The arguments.
+	 * @throws IOException if an I/O error occurs or the input is malformed.
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length == 0 || args.length > 2) {
+			System.err.println("Usage: BinaryLogReader <input> [output]");
+			System.exit(1);
+			return;
+		}
+
+		Path input = Paths.get(args[0]);
+		InputStream in = Files.newInputStream(input);
+		if (input.getFileName().toString().endsWith(".gz"))
+			in = new GZIPInputStream(in, 1 << 16);
+
+		LogAppender appender = new FormattedAppender(args.length == 2 ? new FileAppender(Paths.get(args[1]), StandardCharsets.UTF_8, FlushPolicy.NEVER) : new PrintStreamAppender(System.out));
+		try (BinaryLogReader reader = new BinaryLogReader(in)) {
+			reader.readAll(appender);
+		} finally {
+			appender.close();
+		}
+	}
+
+	private static final class NamedLogger implements ILogger {
+		private final String name;
+
+		private NamedLogger(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public String getName() {
+			return this.name;
+		}
+
+		@Override
+		public boolean isActive(LogLevel level) {
+			return false;
+		}
+
+		@Override
+		public void log(LogMessage message) {}
+	}
+}
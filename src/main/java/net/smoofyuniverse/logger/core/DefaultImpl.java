@@ -25,6 +25,7 @@ package net.smoofyuniverse.logger.core;
 import net.smoofyuniverse.logger.appender.log.FormattedAppender;
 import net.smoofyuniverse.logger.appender.log.LogAppender;
 import net.smoofyuniverse.logger.appender.string.PrintStreamAppender;
+import net.smoofyuniverse.logger.formatter.LogFormatter;
 
 import java.time.LocalTime;
 
@@ -32,6 +33,12 @@ import java.time.LocalTime;
  * The default implementation.
  */
 public class DefaultImpl {
+	/**
+	 * The default formatter.
+	 * Appenders sharing this instance can share the formatted text of a message, see {@link LogMessage#memoize}.
+	 */
+	public static final LogFormatter FORMATTER = DefaultImpl::formatLog;
+
 	/**
 	 * The default appender of a new logger factory.
 	 */
@@ -42,6 +49,8 @@ public class DefaultImpl {
 	 */
 	public static final LoggerFactory FACTORY = new LoggerFactory();
 
+	private static volatile CachedTime cachedTime;
+
 	/**
 	 * Formats the log message to a string.
 	 *
@@ -49,7 +58,22 @@ public class DefaultImpl {
 	 * @return The formatted string.
 	 */
 	public static String formatLog(LogMessage msg) {
-		return formatTime(msg.time) + " [" + msg.logger.getName() + "] " + msg.level.name() + " - " + msg.getText() + System.lineSeparator();
+		StringBuilder builder = new StringBuilder();
+		formatLog(msg, builder);
+		return builder.toString();
+	}
+
+	/**
+	 * Formats the log message to a builder.
+	 *
+	 * @param msg     The log message.
+	 * @param builder The builder.
+	 */
+	public static void formatLog(LogMessage msg, StringBuilder builder) {
+		formatTime(msg, builder);
+		builder.append(" [").append(msg.getLogger().getName()).append("] ").append(msg.getLevel().name()).append(" - ");
+		msg.appendText(builder);
+		builder.append(System.lineSeparator());
 	}
 
 	/**
@@ -59,6 +83,53 @@ public class DefaultImpl {
 	 * @return The formatted string.
 	 */
 	public static String formatTime(LocalTime time) {
-		return String.format("%02d:%02d:%02d", time.getHour(), time.getMinute(), time.getSecond());
+		StringBuilder builder = new StringBuilder(8);
+		formatTime(time, builder);
+		return builder.toString();
+	}
+
+	/**
+	 * Formats the time to a builder.
+	 *
+	 * @param time    The time.
+	 * @param builder The builder.
+	 */
+	public static void formatTime(LocalTime time, StringBuilder builder) {
+		appendTwoDigits(time.getHour(), builder);
+		builder.append(':');
+		appendTwoDigits(time.getMinute(), builder);
+		builder.append(':');
+		appendTwoDigits(time.getSecond(), builder);
+	}
+
+	/**
+	 * Formats the time of the log message to a builder.
+	 * The rendering is cached per second.
+	 *
+	 * @param msg     The log message.
+	 * @param builder The builder.
+	 */
+	public static void formatTime(LogMessage msg, StringBuilder builder) {
+		long second = Math.floorDiv(msg.getTimestamp(), 1_000_000_000L);
+		CachedTime cache = cachedTime;
+		if (cache == null || cache.second != second) {
+			cache = new CachedTime(second, formatTime(msg.getTime()));
+			cachedTime = cache;
+		}
+		builder.append(cache.text);
+	}
+
+	private static void appendTwoDigits(int value, StringBuilder builder) {
+		builder.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+	}
+
+	private static final class CachedTime {
+		private final long second;
+		private final String text;
+
+		private CachedTime(long second, String text) {
+			this.second = second;
+			this.text = text;
+		}
 	}
 }
@@ -45,7 +45,7 @@ public interface ILogger {
 	boolean isActive(LogLevel level);
 
 	default void log(LogLevel level, Supplier<String> textSupplier) {
-		log(new LogMessage(this, level, null, textSupplier));
+		log(level, textSupplier, null);
 	}
 
 	/**
@@ -56,19 +56,67 @@ public interface ILogger {
 	void log(LogMessage message);
 
 	default void log(LogLevel level, String text) {
-		log(new LogMessage(this, level, null, text));
+		log(level, text, (Throwable) null);
 	}
 
 	default void log(LogLevel level, Throwable throwable) {
-		log(new LogMessage(this, level, throwable, "An error occurred."));
+		log(level, "An error occurred.", throwable);
 	}
 
 	default void log(LogLevel level, Supplier<String> textSupplier, Throwable throwable) {
-		log(new LogMessage(this, level, throwable, textSupplier));
+		if (isActive(level))
+			log(new LogMessage(this, level, throwable, textSupplier));
 	}
 
 	default void log(LogLevel level, String text, Throwable throwable) {
-		log(new LogMessage(this, level, throwable, text));
+		if (isActive(level))
+			log(new LogMessage(this, level, throwable, text));
+	}
+
+	/**
+	 * Logs a message with structured fields.
+	 * The fields must not be modified after this call, unless messages are reused in garbage-free mode.
+	 *
+	 * @param level     The level.
+	 * @param text      The text.
+	 * @param throwable The throwable.
+	 * @param fields    The fields.
+	 */
+	default void log(LogLevel level, String text, Throwable throwable, LogFields fields) {
+		if (isActive(level)) {
+			LogMessage message = new LogMessage(this, level, throwable, text);
+			message.setFields(fields);
+			log(message);
+		}
+	}
+
+	/**
+	 * Logs a message with structured fields.
+	 * The fields come first so that {@code log(level, text, null)} still resolves to the throwable overload.
+	 *
+	 * @param level  The level.
+	 * @param fields The fields.
+	 * @param text   The text.
+	 */
+	default void log(LogLevel level, LogFields fields, String text) {
+		log(level, text, null, fields);
+	}
+
+	/**
+	 * Logs a message formatted from a template.
+	 * Formatting is deferred until the text is read.
+	 * A trailing throwable not consumed by a placeholder is used as the throwable of the message.
+	 * A bare {@code null} argument is ambiguous with the throwable overloads and must be cast.
+	 *
+	 * @param level    The level.
+	 * @param template The template using {@code {}} placeholders.
+	 * @param args     The arguments.
+	 */
+	default void log(LogLevel level, String template, Object... args) {
+		if (isActive(level)) {
+			MessageTemplate t = MessageTemplate.of(template);
+			log(new LogMessage(this, level, t.getThrowable(args), t, args));
+		}
 	}
 
 	default void trace(Supplier<String> supplier) {
@@ -91,6 +139,29 @@ public interface ILogger {
 		log(LogLevel.TRACE, text, throwable);
 	}
 
+	default void trace(LogFields fields, String text) {
+		log(LogLevel.TRACE, text, null, fields);
+	}
+
+	default void trace(String template, Object arg) {
+		if (isActive(LogLevel.TRACE))
+			log(LogLevel.TRACE, template, new Object[]{arg});
+	}
+
+	default void trace(String template, Object arg1, Object arg2) {
+		if (isActive(LogLevel.TRACE))
+			log(LogLevel.TRACE, template, new Object[]{arg1, arg2});
+	}
+
+	default void trace(String template, Object arg1, Object arg2, Object arg3) {
+		if (isActive(LogLevel.TRACE))
+			log(LogLevel.TRACE, template, new Object[]{arg1, arg2, arg3});
+	}
+
+	default void trace(String template, Object... args) {
+		log(LogLevel.TRACE, template, args);
+	}
+
 	default void debug(String text) {
 		log(LogLevel.DEBUG, text);
 	}
@@ -107,10 +178,33 @@ public interface ILogger {
 		log(LogLevel.DEBUG, text, throwable);
 	}
 
+	default void debug(LogFields fields, String text) {
+		log(LogLevel.DEBUG, text, null, fields);
+	}
+
 	default void debug(Supplier<String> supplier, Throwable throwable) {
 		log(LogLevel.DEBUG, supplier, throwable);
 	}
 
+	default void debug(String template, Object arg) {
+		if (isActive(LogLevel.DEBUG))
+			log(LogLevel.DEBUG, template, new Object[]{arg});
+	}
+
+	default void debug(String template, Object arg1, Object arg2) {
+		if (isActive(LogLevel.DEBUG))
+			log(LogLevel.DEBUG, template, new Object[]{arg1, arg2});
+	}
+
+	default void debug(String template, Object arg1, Object arg2, Object arg3) {
+		if (isActive(LogLevel.DEBUG))
+			log(LogLevel.DEBUG, template, new Object[]{arg1, arg2, arg3});
+	}
+
+	default void debug(String template, Object... args) {
+		log(LogLevel.DEBUG, template, args);
+	}
+
 	default void info(String text) {
 		log(LogLevel.INFO, text);
 	}
@@ -127,10 +221,33 @@ public interface ILogger {
 		log(LogLevel.INFO, text, throwable);
 	}
 
+	default void info(LogFields fields, String text) {
+		log(LogLevel.INFO, text, null, fields);
+	}
+
 	default void info(Supplier<String> supplier, Throwable throwable) {
 		log(LogLevel.INFO, supplier, throwable);
 	}
 
+	default void info(String template, Object arg) {
+		if (isActive(LogLevel.INFO))
+			log(LogLevel.INFO, template, new Object[]{arg});
+	}
+
+	default void info(String template, Object arg1, Object arg2) {
+		if (isActive(LogLevel.INFO))
+			log(LogLevel.INFO, template, new Object[]{arg1, arg2});
+	}
+
+	default void info(String template, Object arg1, Object arg2, Object arg3) {
+		if (isActive(LogLevel.INFO))
+			log(LogLevel.INFO, template, new Object[]{arg1, arg2, arg3});
+	}
+
+	default void info(String template, Object... args) {
+		log(LogLevel.INFO, template, args);
+	}
+
 	default void warn(String text) {
 		log(LogLevel.WARN, text);
 	}
@@ -147,10 +264,33 @@ public interface ILogger {
 		log(LogLevel.WARN, text, throwable);
 	}
 
+	default void warn(LogFields fields, String text) {
+		log(LogLevel.WARN, text, null, fields);
+	}
+
 	default void warn(Supplier<String> supplier, Throwable throwable) {
 		log(LogLevel.WARN, supplier, throwable);
 	}
 
+	default void warn(String template, Object arg) {
+		if (isActive(LogLevel.WARN))
+			log(LogLevel.WARN, template, new Object[]{arg});
+	}
+
+	default void warn(String template, Object arg1, Object arg2) {
+		if (isActive(LogLevel.WARN))
+			log(LogLevel.WARN, template, new Object[]{arg1, arg2});
+	}
+
+	default void warn(String template, Object arg1, Object arg2, Object arg3) {
+		if (isActive(LogLevel.WARN))
+			log(LogLevel.WARN, template, new Object[]{arg1, arg2, arg3});
+	}
+
+	default void warn(String template, Object... args) {
+		log(LogLevel.WARN, template, args);
+	}
+
 	default void error(String text) {
 		log(LogLevel.ERROR, text);
 	}
@@ -167,7 +307,30 @@ public interface ILogger {
 		log(LogLevel.ERROR, text, throwable);
 	}
 
+	default void error(LogFields fields, String text) {
+		log(LogLevel.ERROR, text, null, fields);
+	}
+
 	default void error(Supplier<String> supplier, Throwable throwable) {
 		log(LogLevel.ERROR, supplier, throwable);
 	}
+
+	default void error(String template, Object arg) {
+		if (isActive(LogLevel.ERROR))
+			log(LogLevel.ERROR, template, new Object[]{arg});
+	}
+
+	default void error(String template, Object arg1, Object arg2) {
+		if (isActive(LogLevel.ERROR))
+			log(LogLevel.ERROR, template, new Object[]{arg1, arg2});
+	}
+
+	default void error(String template, Object arg1, Object arg2, Object arg3) {
+		if (isActive(LogLevel.ERROR))
+			log(LogLevel.ERROR, template, new Object[]{arg1, arg2, arg3});
+	}
+
+	default void error(String template, Object... args) {
+		log(LogLevel.ERROR, template, args);
+	}
 }
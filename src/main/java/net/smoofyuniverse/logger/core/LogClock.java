@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.smoofyuniverse.logger.core;
+
+import java.time.Clock;
+import java.time.Instant;
+
+/**
+ * A source of timestamps for log messages.
+ */
+public interface LogClock {
+	/**
+	 * A clock based on {@link System#currentTimeMillis()}.
+	 */
+	LogClock SYSTEM = () -> System.currentTimeMillis() * 1_000_000L;
+
+	/**
+	 * A clock using the best precision available from the system clock.
+	 */
+	LogClock PRECISE = () -> {
+		Instant now = Clock.systemUTC().instant();
+		return now.getEpochSecond() * 1_000_000_000L + now.getNano();
+	};
+
+	/**
+	 * Gets the current time.
+	 *
+	 * @return The time, in nanoseconds since the epoch.
+	 */
+	long currentTimeNanos();
+
+	/**
+	 * Creates a clock returning a value updated periodically by a background thread.
+	 * Reading this clock is a single volatile read.
+	 *
+	 * @param periodMillis The update period in milliseconds.
+	 * @return The clock.
+	 */
+	static Coarse coarse(long periodMillis) {
+		if (periodMillis <= 0)
+			throw new IllegalArgumentException("periodMillis");
+		return new Coarse(periodMillis);
+	}
+
+	/**
+	 * A {@link LogClock} updated periodically by a background thread.
+	 */
+	final class Coarse implements LogClock, AutoCloseable {
+		public final long periodMillis;
+
+		private final Thread thread;
+		private volatile long time = SYSTEM.currentTimeNanos();
+		private volatile boolean closed;
+
+		private Coarse(long periodMillis) {
+			this.periodMillis = periodMillis;
+			this.thread = new Thread(this::run, "Log clock");
+			this.thread.setDaemon(true);
+			this.thread.start();
+		}
+
+		private void run() {
+			while (!this.closed) {
+				try {
+					Thread.sleep(this.periodMillis);
+				} catch (InterruptedException ignored) {
+				}
+				this.time = SYSTEM.currentTimeNanos();
+			}
+		}
+
+		@Override
+		public long currentTimeNanos() {
+			return this.time;
+		}
+
+		/**
+		 * Stops the background thread.
+		 * The clock stops being updated.
+		 */
+		@Override
+		public void close() {
+			this.closed = true;
+			this.thread.interrupt();
+		}
+	}
+}
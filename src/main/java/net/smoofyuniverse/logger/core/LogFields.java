@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.smoofyuniverse.logger.core;
+
+import java.util.Arrays;
+
+/**
+ * Typed key-value fields attached to a log message.
+ * <p>
+ * Fields are stored in flat arrays in insertion order, primitive values are not boxed.
+ * Keys are not deduplicated: adding a key twice keeps both fields.
+ * Instances are mutable and not thread-safe, they must not be modified once logged.
+ */
+public final class LogFields {
+	private String[] keys;
+	private Type[] types;
+	private long[] primitives;
+	private Object[] objects;
+	private int size;
+
+	public LogFields() {
+		this(8);
+	}
+
+	public LogFields(int capacity) {
+		if (capacity < 0)
+			throw new IllegalArgumentException("capacity");
+		this.keys = new String[capacity];
+		this.types = new Type[capacity];
+		this.primitives = new long[capacity];
+		this.objects = new Object[capacity];
+	}
+
+	private int add(String key, Type type) {
+		if (key == null)
+			throw new IllegalArgumentException("key");
+
+		if (this.size == this.keys.length) {
+			int capacity = Math.max(8, this.size * 2);
+			this.keys = Arrays.copyOf(this.keys, capacity);
+			this.types = Arrays.copyOf(this.types, capacity);
+			this.primitives = Arrays.copyOf(this.primitives, capacity);
+			this.objects = Arrays.copyOf(this.objects, capacity);
+		}
+		this.keys[this.size] = key;
+		this.types[this.size] = type;
+		return this.size++;
+	}
+
+	public LogFields add(String key, String value) {
+		this.objects[add(key, Type.STRING)] = value;
+		return this;
+	}
+
+	public LogFields add(String key, long value) {
+		this.primitives[add(key, Type.LONG)] = value;
+		return this;
+	}
+
+	public LogFields add(String key, double value) {
+		this.primitives[add(key, Type.DOUBLE)] = Double.doubleToRawLongBits(value);
+		return this;
+	}
+
+	public LogFields add(String key, boolean value) {
+		this.primitives[add(key, Type.BOOLEAN)] = value ? 1 : 0;
+		return this;
+	}
+
+	/**
+	 * Adds a field whose value is rendered with {@link String#valueOf(Object)}.
+	 *
+	 * @param key   The key.
+	 * @param value The value.
+	 * @return This instance.
+	 */
+	public LogFields add(String key, Object value) {
+		this.objects[add(key, Type.OBJECT)] = value;
+		return this;
+	}
+
+	/**
+	 * Gets the number of fields.
+	 *
+	 * @return The size.
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	public String getKey(int index) {
+		checkIndex(index);
+		return this.keys[index];
+	}
+
+	public Type getType(int index) {
+		checkIndex(index);
+		return this.types[index];
+	}
+
+	public long getLong(int index) {
+		checkType(index, Type.LONG);
+		return this.primitives[index];
+	}
+
+	public double getDouble(int index) {
+		checkType(index, Type.DOUBLE);
+		return Double.longBitsToDouble(this.primitives[index]);
+	}
+
+	public boolean getBoolean(int index) {
+		checkType(index, Type.BOOLEAN);
+		return this.primitives[index] != 0;
+	}
+
+	/**
+	 * Gets the value of a field, boxed if primitive.
+	 *
+	 * @param index The index.
+	 * @return The value.
+	 */
+	public Object getValue(int index) {
+		checkIndex(index);
+		switch (this.types[index]) {
+			case LONG:
+				return this.primitives[index];
+			case DOUBLE:
+				return Double.longBitsToDouble(this.primitives[index]);
+			case BOOLEAN:
+				return this.primitives[index] != 0;
+			default:
+				return this.objects[index];
+		}
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= this.size)
+			throw new IndexOutOfBoundsException(String.valueOf(index));
+	}
+
+	private void checkType(int index, Type type) {
+		checkIndex(index);
+		if (this.types[index] != type)
+			throw new IllegalStateException("Field " + this.keys[index] + " is " + this.types[index]);
+	}
+
+	/**
+	 * Removes all fields, keeping the allocated arrays.
+	 */
+	public void clear() {
+		Arrays.fill(this.keys, 0, this.size, null);
+		Arrays.fill(this.types, 0, this.size, null);
+		Arrays.fill(this.objects, 0, this.size, null);
+		this.size = 0;
+	}
+
+	/**
+	 * Copies these fields.
+	 *
+	 * @return The copy.
+	 */
+	public LogFields copy() {
+		LogFields copy = new LogFields(this.size);
+		System.arraycopy(this.keys, 0, copy.keys, 0, this.size);
+		System.arraycopy(this.types, 0, copy.types, 0, this.size);
+		System.arraycopy(this.primitives, 0, copy.primitives, 0, this.size);
+		System.arraycopy(this.objects, 0, copy.objects, 0, this.size);
+		copy.size = this.size;
+		return copy;
+	}
+
+	/**
+	 * The type of a field.
+	 */
+	public enum Type {
+		STRING, LONG, DOUBLE, BOOLEAN, OBJECT
+	}
+}
@@ -22,118 +22,436 @@
 
 package net.smoofyuniverse.logger.core;
 
-import java.io.PrintWriter;
-import java.io.StringWriter;
+import net.smoofyuniverse.logger.formatter.ThrowableRenderer;
+
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.function.UnaryOperator;
 
 /**
  * A data structure representing a log message.
+ * <p>
+ * In garbage-free mode, loggers reuse a message per thread: such a message is only valid during the call to the appender.
+ * Appenders retaining a message after returning must keep a {@link #snapshot()} instead.
+ * Other messages are immutable, apart from lazily computed values.
  */
-public final class LogMessage {
-	/**
-	 * The logger.
-	 */
-	public final ILogger logger;
-
-	/**
-	 * The log level.
-	 */
-	public final LogLevel level;
-
-	/**
-	 * The time.
-	 */
-	public final LocalTime time;
-
-	/**
-	 * The thread.
-	 */
-	public final Thread thread;
-
-	/**
-	 * The throwable.
-	 */
-	public final Throwable throwable;
+public class LogMessage {
+	private final ILogger logger;
+	private final LogLevel level;
+	private final long timestamp;
+	private final Thread thread;
+	private final Throwable throwable;
+	private ZonedDateTime dateTime;
 	private String stackTrace;
 
 	private Supplier<String> textSupplier;
+	private MessageTemplate template;
+	private Object[] args;
 	private String text;
+	private LogFields fields;
+
+	// The message transformed by this view and the operator applied to its text and stack trace.
+	private LogMessage source;
+	private UnaryOperator<String> operator;
+
+	// Memoized results, guarded by this message.
+	private Object[] memoKeys;
+	private String[] memoValues;
+	private int memoCount;
+
+	private final boolean reusable;
 
 	public LogMessage(ILogger logger, LogLevel level, Throwable throwable, String text) {
-		this(logger, level, LocalTime.now(), Thread.currentThread(), throwable, text);
+		this(logger, level, LogClock.SYSTEM.currentTimeNanos(), Thread.currentThread(), throwable, text);
 	}
 
-	public LogMessage(ILogger logger, LogLevel level, LocalTime time, Thread thread, Throwable throwable, String text) {
-		this(logger, level, time, thread, throwable);
+	public LogMessage(ILogger logger, LogLevel level, long timestamp, Thread thread, Throwable throwable, String text) {
+		this(logger, level, timestamp, thread, throwable);
 		if (text == null)
 			throw new IllegalArgumentException("text");
 		this.text = text;
 	}
 
-	public LogMessage(ILogger logger, LogLevel level, LocalTime time, Thread thread, Throwable throwable, String text, String stackTrace) {
-		this(logger, level, time, thread, throwable, text);
+	public LogMessage(ILogger logger, LogLevel level, long timestamp, Thread thread, Throwable throwable, String text, String stackTrace) {
+		this(logger, level, timestamp, thread, throwable, text);
 		this.stackTrace = stackTrace;
 	}
 
-	private LogMessage(ILogger logger, LogLevel level, LocalTime time, Thread thread, Throwable throwable) {
+	private LogMessage(ILogger logger, LogLevel level, long timestamp, Thread thread, Throwable throwable) {
 		if (logger == null)
 			throw new IllegalArgumentException("logger");
 		if (level == null)
 			throw new IllegalArgumentException("level");
-		if (time == null)
-			throw new IllegalArgumentException("time");
 		if (thread == null)
 			throw new IllegalArgumentException("thread");
 
-		this.time = time;
+		this.timestamp = timestamp;
 		this.level = level;
 		this.logger = logger;
 		this.thread = thread;
 		this.throwable = throwable;
+		this.reusable = false;
+	}
+
+	// Creates an empty reusable message, see ReusableLogMessage.
+	LogMessage() {
+		this.logger = null;
+		this.level = null;
+		this.timestamp = 0;
+		this.thread = null;
+		this.throwable = null;
+		this.reusable = true;
+	}
+
+	// Creates a view transforming the source lazily, reusable if the source is.
+	private LogMessage(LogMessage source, UnaryOperator<String> operator) {
+		this.logger = source.getLogger();
+		this.level = source.getLevel();
+		this.timestamp = source.getTimestamp();
+		this.dateTime = source.dateTime;
+		this.thread = source.getThread();
+		this.throwable = source.getThrowable();
+		this.fields = source.fields;
+		this.source = source;
+		this.operator = operator;
+		this.reusable = source.reusable;
 	}
 
 	public LogMessage(ILogger logger, LogLevel level, Throwable throwable, Supplier<String> textSupplier) {
-		this(logger, level, LocalTime.now(), Thread.currentThread(), throwable, textSupplier);
+		this(logger, level, LogClock.SYSTEM.currentTimeNanos(), Thread.currentThread(), throwable, textSupplier);
 	}
 
-	public LogMessage(ILogger logger, LogLevel level, LocalTime time, Thread thread, Throwable throwable, Supplier<String> textSupplier) {
-		this(logger, level, time, thread, throwable);
+	public LogMessage(ILogger logger, LogLevel level, long timestamp, Thread thread, Throwable throwable, Supplier<String> textSupplier) {
+		this(logger, level, timestamp, thread, throwable);
 		if (textSupplier == null)
 			throw new IllegalArgumentException("textSupplier");
 		this.textSupplier = textSupplier;
 	}
 
-	public LogMessage(ILogger logger, LogLevel level, LocalTime time, Thread thread, Throwable throwable, Supplier<String> textSupplier, String stackTrace) {
-		this(logger, level, time, thread, throwable, textSupplier);
+	public LogMessage(ILogger logger, LogLevel level, long timestamp, Thread thread, Throwable throwable, Supplier<String> textSupplier, String stackTrace) {
+		this(logger, level, timestamp, thread, throwable, textSupplier);
 		this.stackTrace = stackTrace;
 	}
 
+	/**
+	 * @deprecated Use {@link #LogMessage(ILogger, LogLevel, long, Thread, Throwable, String)} with a timestamp instead.
+	 * The time is taken on the current date in the system default zone.
+	 */
+	@Deprecated
+	public LogMessage(ILogger logger, LogLevel level, LocalTime time, Thread thread, Throwable throwable, String text) {
+		this(logger, level, toTimestamp(time), thread, throwable, text);
+	}
+
+	/**
+	 * @deprecated Use {@link #LogMessage(ILogger, LogLevel, long, Thread, Throwable, String, String)} with a timestamp instead.
+	 * The time is taken on the current date in the system default zone.
+	 */
+	@Deprecated
+	public LogMessage(ILogger logger, LogLevel level, LocalTime time, Thread thread, Throwable throwable, String text, String stackTrace) {
+		this(logger, level, toTimestamp(time), thread, throwable, text, stackTrace);
+	}
+
+	/**
+	 * @deprecated Use {@link #LogMessage(ILogger, LogLevel, long, Thread, Throwable, Supplier)} with a timestamp instead.
+	 * The time is taken on the current date in the system default zone.
+	 */
+	@Deprecated
+	public LogMessage(ILogger logger, LogLevel level, LocalTime time, Thread thread, Throwable throwable, Supplier<String> textSupplier) {
+		this(logger, level, toTimestamp(time), thread, throwable, textSupplier);
+	}
+
+	/**
+	 * @deprecated Use {@link #LogMessage(ILogger, LogLevel, long, Thread, Throwable, Supplier, String)} with a timestamp instead.
+	 * The time is taken on the current date in the system default zone.
+	 */
+	@Deprecated
+	public LogMessage(ILogger logger, LogLevel level, LocalTime time, Thread thread, Throwable throwable, Supplier<String> textSupplier, String stackTrace) {
+		this(logger, level, toTimestamp(time), thread, throwable, textSupplier, stackTrace);
+	}
+
+	public LogMessage(ILogger logger, LogLevel level, Throwable throwable, MessageTemplate template, Object[] args) {
+		this(logger, level, LogClock.SYSTEM.currentTimeNanos(), Thread.currentThread(), throwable, template, args);
+	}
+
+	public LogMessage(ILogger logger, LogLevel level, long timestamp, Thread thread, Throwable throwable, MessageTemplate template, Object[] args) {
+		this(logger, level, timestamp, thread, throwable);
+		if (template == null)
+			throw new IllegalArgumentException("template");
+		if (args == null)
+			throw new IllegalArgumentException("args");
+		this.template = template;
+		this.args = args;
+	}
+
+	private static long toTimestamp(LocalTime time) {
+		if (time == null)
+			throw new IllegalArgumentException("time");
+		Instant instant = LocalDate.now().atTime(time).atZone(ZoneId.systemDefault()).toInstant();
+		return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+	}
+
+	// Sets the text of this reusable message, exactly one text source must be non-null.
+	void setText(String text, Supplier<String> textSupplier, MessageTemplate template, Object[] args) {
+		this.text = text;
+		this.textSupplier = textSupplier;
+		this.template = template;
+		this.args = args;
+	}
+
+	// Clears this reusable message so that it can be used again.
+	void clear() {
+		this.dateTime = null;
+		this.stackTrace = null;
+		this.text = null;
+		this.textSupplier = null;
+		this.template = null;
+		this.args = null;
+		this.fields = null;
+		clearMemos();
+	}
+
+	private synchronized void clearMemos() {
+		if (this.memoCount != 0) {
+			Arrays.fill(this.memoKeys, 0, this.memoCount, null);
+			Arrays.fill(this.memoValues, 0, this.memoCount, null);
+			this.memoCount = 0;
+		}
+	}
+
+	/**
+	 * Gets the logger.
+	 *
+	 * @return The logger.
+	 */
+	public ILogger getLogger() {
+		return this.logger;
+	}
+
+	/**
+	 * Gets the level.
+	 *
+	 * @return The level.
+	 */
+	public LogLevel getLevel() {
+		return this.level;
+	}
+
+	/**
+	 * Gets the time, in nanoseconds since the epoch.
+	 *
+	 * @return The timestamp.
+	 */
+	public long getTimestamp() {
+		return this.timestamp;
+	}
+
+	/**
+	 * Gets the thread.
+	 *
+	 * @return The thread.
+	 */
+	public Thread getThread() {
+		return this.thread;
+	}
+
+	/**
+	 * Gets the throwable.
+	 * May be null.
+	 *
+	 * @return The throwable.
+	 */
+	public Throwable getThrowable() {
+		return this.throwable;
+	}
+
+	/**
+	 * Gets whether this message is reused by its logger after being appended.
+	 *
+	 * @return Whether this message is reusable.
+	 */
+	public boolean isReusable() {
+		return this.reusable;
+	}
+
+	/**
+	 * Gets a message that remains valid after the call to the appender.
+	 * Returns this message if it is not reusable, otherwise a copy.
+	 *
+	 * @return The message.
+	 */
+	public LogMessage snapshot() {
+		if (!this.reusable)
+			return this;
+
+		LogMessage copy;
+		if (this.source != null) {
+			copy = new LogMessage(this.source.snapshot(), this.operator);
+			copy.text = this.text;
+		} else if (this.text != null)
+			copy = new LogMessage(getLogger(), getLevel(), getTimestamp(), getThread(), getThrowable(), this.text);
+		else if (this.template != null)
+			copy = new LogMessage(getLogger(), getLevel(), getTimestamp(), getThread(), getThrowable(), this.template, this.args);
+		else
+			copy = new LogMessage(getLogger(), getLevel(), getTimestamp(), getThread(), getThrowable(), this.textSupplier);
+		copy.stackTrace = this.stackTrace;
+		copy.dateTime = this.dateTime;
+		// Fields of a reusable message may be reused by the caller as well.
+		if (this.fields != null)
+			copy.fields = this.fields.copy();
+		synchronized (this) {
+			if (this.memoCount != 0) {
+				copy.memoKeys = Arrays.copyOf(this.memoKeys, this.memoCount);
+				copy.memoValues = Arrays.copyOf(this.memoValues, this.memoCount);
+				copy.memoCount = this.memoCount;
+			}
+		}
+		return copy;
+	}
+
+	/**
+	 * Gets the result of a function for this message, computing it only once per key.
+	 * Appenders sharing a formatter can use it as key so that the message is formatted once.
+	 *
+	 * @param key      The key.
+	 * @param function The function.
+	 * @return The result.
+	 */
+	public synchronized String memoize(Object key, Function<LogMessage, String> function) {
+		if (key == null)
+			throw new IllegalArgumentException("key");
+
+		for (int i = 0; i < this.memoCount; i++) {
+			if (this.memoKeys[i].equals(key))
+				return this.memoValues[i];
+		}
+
+		String value = function.apply(this);
+		if (this.memoKeys == null) {
+			this.memoKeys = new Object[4];
+			this.memoValues = new String[4];
+		} else if (this.memoCount == this.memoKeys.length) {
+			this.memoKeys = Arrays.copyOf(this.memoKeys, this.memoCount * 2);
+			this.memoValues = Arrays.copyOf(this.memoValues, this.memoCount * 2);
+		}
+		this.memoKeys[this.memoCount] = key;
+		this.memoValues[this.memoCount] = value;
+		this.memoCount++;
+		return value;
+	}
+
+	/**
+	 * Gets the time as an instant.
+	 *
+	 * @return The instant.
+	 */
+	public Instant getInstant() {
+		return Instant.ofEpochSecond(Math.floorDiv(getTimestamp(), 1_000_000_000L), Math.floorMod(getTimestamp(), 1_000_000_000L));
+	}
+
+	/**
+	 * Gets the time in the system default zone.
+	 * This method may lazy-initialize the date time from the timestamp.
+	 *
+	 * @return The date time.
+	 */
+	public ZonedDateTime getDateTime() {
+		if (this.dateTime == null)
+			this.dateTime = getInstant().atZone(ZoneId.systemDefault());
+		return this.dateTime;
+	}
+
+	/**
+	 * Gets the local time in the system default zone.
+	 * Replaces the former {@code time} field.
+	 *
+	 * @return The local time.
+	 */
+	public LocalTime getTime() {
+		return getDateTime().toLocalTime();
+	}
+
+	/**
+	 * Gets the template this message is formatted from.
+	 * May be null, in particular when the message is transformed.
+	 *
+	 * @return The template.
+	 */
+	public MessageTemplate getTemplate() {
+		return this.template;
+	}
+
+	/**
+	 * Gets the structured fields.
+	 * May be null.
+	 *
+	 * @return The fields.
+	 */
+	public LogFields getFields() {
+		return this.fields;
+	}
+
+	void setFields(LogFields fields) {
+		this.fields = fields;
+	}
+
 	/**
 	 * Gets the text.
-	 * This method may lazy-initialize the text from a supplier.
+	 * This method may lazy-initialize the text from a supplier or a template.
 	 *
 	 * @return The text.
 	 */
 	public String getText() {
 		if (this.text == null) {
-			this.text = this.textSupplier.get();
-			if (this.text == null)
-				this.text = "";
+			if (this.source != null) {
+				this.text = this.operator.apply(this.source.getText());
+			} else if (this.template != null) {
+				this.text = this.template.format(this.args);
+			} else {
+				this.text = this.textSupplier.get();
+				if (this.text == null)
+					this.text = "";
+			}
 		}
 		return this.text;
 	}
 
+	/**
+	 * Appends the text to a builder.
+	 * A reusable message formats its template directly into the builder, other messages initialize their text once.
+	 *
+	 * @param builder The builder.
+	 */
+	public void appendText(StringBuilder builder) {
+		if (this.reusable && this.text == null && this.template != null)
+			this.template.format(this.args, builder);
+		else
+			builder.append(getText());
+	}
+
 	/**
 	 * Transforms text and stack trace.
+	 * The transformation is lazy: the returned message is a view applying the transformer when its text or stack trace is read.
+	 * Consecutive transformations are composed into a single operator applied once on read, without intermediate views.
 	 *
 	 * @param transformer The transformer.
 	 * @return The new log message.
 	 */
 	public LogMessage transform(UnaryOperator<String> transformer) {
-		return new LogMessage(this.logger, this.level, this.time, this.thread, this.throwable,
-				transformer.apply(getText()), transformer.apply(getStackTrace()));
+		if (transformer == null)
+			throw new IllegalArgumentException("transformer");
+
+		// Nothing has been computed from this view yet, the new view can start from its source.
+		if (this.source != null && this.text == null && this.stackTrace == null) {
+			UnaryOperator<String> operator = this.operator;
+			return new LogMessage(this.source, s -> transformer.apply(operator.apply(s)));
+		}
+		return new LogMessage(this, transformer);
 	}
 
 	/**
@@ -145,14 +463,37 @@ public final class LogMessage {
 	 */
 	public String getStackTrace() {
 		if (this.stackTrace == null) {
-			if (this.throwable == null) {
-				this.stackTrace = "";
-			} else {
-				StringWriter buffer = new StringWriter();
-				this.throwable.printStackTrace(new PrintWriter(buffer));
-				this.stackTrace = buffer.toString();
-			}
+			if (this.source != null)
+				this.stackTrace = this.operator.apply(this.source.getStackTrace());
+			else
+				this.stackTrace = getThrowable() == null ? "" : ThrowableRenderer.DEFAULT.render(getThrowable());
 		}
 		return this.stackTrace;
 	}
+
+	// Renders the stack trace with the renderer, then applies the operators of the views.
+	private String renderStackTrace(ThrowableRenderer renderer) {
+		if (this.stackTrace != null)
+			return this.stackTrace;
+		if (this.source != null)
+			return this.operator.apply(this.source.renderStackTrace(renderer));
+		return getThrowable() == null ? "" : renderer.render(getThrowable());
+	}
+
+	/**
+	 * Appends the stack trace to a builder.
+	 * If the stack trace is not already initialized, the throwable is rendered directly into the builder.
+	 * The stack trace of a transformed message is rendered with the renderer before being transformed.
+	 *
+	 * @param builder  The builder.
+	 * @param renderer The renderer.
+	 */
+	public void appendStackTrace(StringBuilder builder, ThrowableRenderer renderer) {
+		if (this.stackTrace != null)
+			builder.append(this.stackTrace);
+		else if (this.source != null)
+			builder.append(renderer == ThrowableRenderer.DEFAULT ? getStackTrace() : renderStackTrace(renderer));
+		else if (getThrowable() != null)
+			renderer.render(getThrowable(), builder);
+	}
 }
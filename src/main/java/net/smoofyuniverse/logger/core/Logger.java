@@ -22,24 +22,45 @@
 
 package net.smoofyuniverse.logger.core;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
 /**
  * The default implementation of a {@link ILogger}.
+ * Loggers are organized in a tree following their dot-separated names.
+ * A logger without level inherits the level of its parent, or the level of the factory for top-level loggers.
  */
 public final class Logger implements ILogger {
+	private static final ThreadLocal<ReusableLogMessage> events = ThreadLocal.withInitial(ReusableLogMessage::new);
+
 	private final LoggerFactory factory;
+	private final Logger parent;
 	private final String name;
-	private LogLevel level;
+	private final int id;
+	private final Collection<Logger> children = new CopyOnWriteArrayList<>(), unmodifiableChildren = Collections.unmodifiableCollection(this.children);
+	private volatile LogLevel level;
+	// The ordinal of the effective level, recomputed when a level changes in the ancestors.
+	private volatile int effectiveLevel;
+	// The number of messages logged per level.
+	private final LongAdder[] counts = new LongAdder[LogLevel.values().length];
 
-	Logger(LoggerFactory factory, String name) {
+	Logger(LoggerFactory factory, Logger parent, String name, int id) {
 		if (factory == null)
 			throw new IllegalArgumentException("factory");
 		if (name == null)
 			throw new IllegalArgumentException("name");
 
 		this.factory = factory;
+		this.parent = parent;
 		this.name = name;
+		this.id = id;
+		for (int i = 0; i < this.counts.length; i++)
+			this.counts[i] = new LongAdder();
+		this.effectiveLevel = computeEffectiveLevel();
 	}
 
 	/**
@@ -57,7 +78,84 @@ public final class Logger implements ILogger {
 	 * @param level The level.
 	 */
 	public void setLevel(LogLevel level) {
-		this.level = level;
+		synchronized (this.factory.lock) {
+			this.level = level;
+			update();
+		}
+	}
+
+	/**
+	 * Gets the effective level.
+	 * This is the level of this logger if set, otherwise the inherited level.
+	 *
+	 * @return The effective level.
+	 */
+	public LogLevel getEffectiveLevel() {
+		return LogLevel.values()[this.effectiveLevel];
+	}
+
+	/**
+	 * Gets the parent.
+	 *
+	 * @return The parent.
+	 */
+	public Optional<Logger> getParent() {
+		return Optional.ofNullable(this.parent);
+	}
+
+	/**
+	 * Gets the children.
+	 *
+	 * @return The children.
+	 */
+	public Collection<Logger> getChildren() {
+		return this.unmodifiableChildren;
+	}
+
+	void addChild(Logger child) {
+		this.children.add(child);
+	}
+
+	// Must be called while holding the factory lock.
+	void update() {
+		int effectiveLevel = computeEffectiveLevel();
+		if (effectiveLevel == this.effectiveLevel)
+			return;
+
+		this.effectiveLevel = effectiveLevel;
+		for (Logger child : this.children) {
+			if (child.level == null)
+				child.update();
+		}
+	}
+
+	private int computeEffectiveLevel() {
+		if (this.level != null)
+			return this.level.ordinal();
+		if (this.parent != null)
+			return this.parent.effectiveLevel;
+		return this.factory.getLevel().ordinal();
+	}
+
+	/**
+	 * Gets the id of this logger.
+	 * Ids are assigned sequentially from 0 by the factory, so that they can index arrays.
+	 *
+	 * @return The id.
+	 */
+	public int getId() {
+		return this.id;
+	}
+
+	/**
+	 * Gets the number of messages logged by this logger at the given level.
+	 * Only messages with an active level are counted.
+	 *
+	 * @param level The level.
+	 * @return The number of messages.
+	 */
+	public long getMessageCount(LogLevel level) {
+		return this.counts[level.ordinal()].sum();
 	}
 
 	/**
@@ -81,9 +179,7 @@ public final class Logger implements ILogger {
 
 	@Override
 	public boolean isActive(LogLevel level) {
-		if (this.level == null)
-			return this.factory.isActive(level);
-		return level.ordinal() >= this.level.ordinal();
+		return level.ordinal() >= this.effectiveLevel;
 	}
 
 	@Override
@@ -93,8 +189,88 @@ public final class Logger implements ILogger {
 
 	@Override
 	public void log(LogMessage message) {
-		if (isActive(message.level))
+		if (isActive(message.getLevel())) {
+			this.counts[message.getLevel().ordinal()].increment();
 			this.factory.getAppender().accept(message);
+		}
+	}
+
+	@Override
+	public void log(LogLevel level, Supplier<String> textSupplier, Throwable throwable) {
+		if (!isActive(level))
+			return;
+		this.counts[level.ordinal()].increment();
+
+		if (this.factory.isGarbageFree()) {
+			if (textSupplier == null)
+				throw new IllegalArgumentException("textSupplier");
+			dispatch(level, throwable, null, textSupplier, null, null, null);
+		} else {
+			this.factory.getAppender().accept(new LogMessage(this, level, this.factory.getClock().currentTimeNanos(), Thread.currentThread(), throwable, textSupplier));
+		}
+	}
+
+	@Override
+	public void log(LogLevel level, String text, Throwable throwable) {
+		if (!isActive(level))
+			return;
+		this.counts[level.ordinal()].increment();
+
+		if (this.factory.isGarbageFree()) {
+			if (text == null)
+				throw new IllegalArgumentException("text");
+			dispatch(level, throwable, text, null, null, null, null);
+		} else {
+			this.factory.getAppender().accept(new LogMessage(this, level, this.factory.getClock().currentTimeNanos(), Thread.currentThread(), throwable, text));
+		}
+	}
+
+	@Override
+	public void log(LogLevel level, String text, Throwable throwable, LogFields fields) {
+		if (!isActive(level))
+			return;
+		this.counts[level.ordinal()].increment();
+
+		if (this.factory.isGarbageFree()) {
+			if (text == null)
+				throw new IllegalArgumentException("text");
+			dispatch(level, throwable, text, null, null, null, fields);
+		} else {
+			LogMessage message = new LogMessage(this, level, this.factory.getClock().currentTimeNanos(), Thread.currentThread(), throwable, text);
+			message.setFields(fields);
+			this.factory.getAppender().accept(message);
+		}
+	}
+
+	@Override
+	public void log(LogLevel level, String template, Object... args) {
+		if (!isActive(level))
+			return;
+		this.counts[level.ordinal()].increment();
+
+		MessageTemplate t = MessageTemplate.of(template);
+		if (this.factory.isGarbageFree()) {
+			if (args == null)
+				throw new IllegalArgumentException("args");
+			dispatch(level, t.getThrowable(args), null, null, t, args, null);
+		} else {
+			this.factory.getAppender().accept(new LogMessage(this, level, this.factory.getClock().currentTimeNanos(), Thread.currentThread(), t.getThrowable(args), t, args));
+		}
+	}
+
+	private void dispatch(LogLevel level, Throwable throwable, String text, Supplier<String> textSupplier, MessageTemplate template, Object[] args, LogFields fields) {
+		ReusableLogMessage event = events.get();
+		// An appender may log recursively while the event of this thread is in use.
+		if (event.isInUse())
+			event = new ReusableLogMessage();
+
+		event.set(this, level, this.factory.getClock().currentTimeNanos(), Thread.currentThread(), throwable, text, textSupplier, template, args);
+		event.setFields(fields);
+		try {
+			this.factory.getAppender().accept(event);
+		} finally {
+			event.clear();
+		}
 	}
 
 
@@ -24,19 +24,30 @@ package net.smoofyuniverse.logger.core;
 
 import net.smoofyuniverse.logger.appender.log.LogAppender;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * A logger factory.
  */
 public final class LoggerFactory {
 	private final Map<String, Logger> loggers = new ConcurrentHashMap<>(), unmodifiableLoggers = Collections.unmodifiableMap(this.loggers);
+	private final Collection<Logger> roots = new CopyOnWriteArrayList<>();
+	// Guards level changes and the structure of the logger tree.
+	final Object lock = new Object();
 
 	private LogAppender appender = DefaultImpl.FORMATTED_SYSTEM_APPENDER;
-	private LogLevel level = LogLevel.DEBUG;
+	private volatile LogLevel level = LogLevel.DEBUG;
+	private volatile int threshold = this.level.ordinal();
+	private volatile boolean garbageFree;
+	private volatile LogClock clock = LogClock.SYSTEM;
+	private Thread shutdownHook;
+	// The id of the next logger, guarded by the lock.
+	private int nextId;
 
 	/**
 	 * Gets the level.
@@ -55,7 +66,55 @@ public final class LoggerFactory {
 	public void setLevel(LogLevel level) {
 		if (level == null)
 			throw new IllegalArgumentException("level");
-		this.level = level;
+
+		synchronized (this.lock) {
+			this.level = level;
+			this.threshold = level.ordinal();
+
+			for (Logger logger : this.roots) {
+				if (!logger.getLevel().isPresent())
+					logger.update();
+			}
+		}
+	}
+
+	/**
+	 * Gets the clock used to timestamp messages.
+	 *
+	 * @return The clock.
+	 */
+	public LogClock getClock() {
+		return this.clock;
+	}
+
+	/**
+	 * Sets the clock used to timestamp messages.
+	 *
+	 * @param clock The clock.
+	 */
+	public void setClock(LogClock clock) {
+		if (clock == null)
+			throw new IllegalArgumentException("clock");
+		this.clock = clock;
+	}
+
+	/**
+	 * Gets whether loggers of this factory reuse a message per thread instead of allocating one per call.
+	 *
+	 * @return Whether garbage-free mode is enabled.
+	 */
+	public boolean isGarbageFree() {
+		return this.garbageFree;
+	}
+
+	/**
+	 * Sets whether loggers of this factory reuse a message per thread instead of allocating one per call.
+	 * When enabled, appenders retaining messages must use {@link LogMessage#snapshot()}.
+	 *
+	 * @param value Whether garbage-free mode is enabled.
+	 */
+	public void setGarbageFree(boolean value) {
+		this.garbageFree = value;
 	}
 
 	/**
@@ -65,7 +124,7 @@ public final class LoggerFactory {
 	 * @return Whether the level is active.
 	 */
 	public boolean isActive(LogLevel level) {
-		return level.ordinal() >= this.level.ordinal();
+		return level.ordinal() >= this.threshold;
 	}
 
 	/**
@@ -88,9 +147,37 @@ public final class LoggerFactory {
 		this.appender = appender;
 	}
 
+	/**
+	 * Registers a shutdown hook closing the appender before the JVM exits, so that buffered and compressed outputs are complete.
+	 * Messages logged by other shutdown hooks after this one may be lost.
+	 * Does nothing if the hook is already registered.
+	 */
+	public synchronized void registerShutdownHook() {
+		if (this.shutdownHook != null)
+			return;
+
+		this.shutdownHook = new Thread(() -> this.appender.close(), "Logger shutdown hook");
+		Runtime.getRuntime().addShutdownHook(this.shutdownHook);
+	}
+
+	/**
+	 * Unregisters the shutdown hook.
+	 * Does nothing if the hook is not registered.
+	 */
+	public synchronized void unregisterShutdownHook() {
+		if (this.shutdownHook == null)
+			return;
+
+		try {
+			Runtime.getRuntime().removeShutdownHook(this.shutdownHook);
+		} catch (IllegalStateException ignored) {
+		}
+		this.shutdownHook = null;
+	}
+
 	/**
 	 * Gets the logger for the given name.
-	 * Creates it if needed.
+	 * Creates it and its ancestors if needed.
 	 *
 	 * @param name The name.
 	 * @return The logger.
@@ -99,11 +186,37 @@ public final class LoggerFactory {
 		if (name == null)
 			throw new IllegalArgumentException();
 
-		return this.loggers.computeIfAbsent(name, this::createLogger);
+		Logger logger = this.loggers.get(name);
+		if (logger != null)
+			return logger;
+
+		int i = name.lastIndexOf('.');
+		Logger parent = i > 0 ? provideLogger(name.substring(0, i)) : null;
+		return this.loggers.computeIfAbsent(name, n -> createLogger(parent, n));
+	}
+
+	private Logger createLogger(Logger parent, String name) {
+		synchronized (this.lock) {
+			Logger logger = new Logger(this, parent, name, this.nextId++);
+			if (parent == null)
+				this.roots.add(logger);
+			else
+				parent.addChild(logger);
+			return logger;
+		}
 	}
 
-	private Logger createLogger(String name) {
-		return new Logger(this, name);
+	/**
+	 * Gets the number of messages logged by all loggers of this factory at the given level.
+	 *
+	 * @param level The level.
+	 * @return The number of messages.
+	 */
+	public long getMessageCount(LogLevel level) {
+		long count = 0;
+		for (Logger logger : this.loggers.values())
+			count += logger.getMessageCount(level);
+		return count;
 	}
 
 	/**
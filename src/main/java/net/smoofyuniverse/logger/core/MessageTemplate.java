@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.smoofyuniverse.logger.core;
+
+import java.util.Arrays;
+
+/**
+ * A parsed message template using {@code {}} placeholders.
+ * Templates are parsed once and cached by identity of the template string.
+ */
+public final class MessageTemplate {
+	private static final int CACHE_SIZE = 1024;
+	private static final MessageTemplate[] cache = new MessageTemplate[CACHE_SIZE];
+
+	/**
+	 * The template string.
+	 */
+	public final String template;
+
+	// Start and end of the literal parts, placeholders are between them.
+	private final int[] bounds;
+
+	private MessageTemplate(String template) {
+		this.template = template;
+
+		int[] bounds = new int[8];
+		int count = 0, start = 0, i;
+		while ((i = template.indexOf("{}", start)) != -1) {
+			if (count + 2 > bounds.length)
+				bounds = Arrays.copyOf(bounds, bounds.length * 2);
+			bounds[count++] = start;
+			bounds[count++] = i;
+			start = i + 2;
+		}
+
+		bounds = Arrays.copyOf(bounds, count + 2);
+		bounds[count++] = start;
+		bounds[count] = template.length();
+		this.bounds = bounds;
+	}
+
+	/**
+	 * Gets the number of placeholders.
+	 *
+	 * @return The number of placeholders.
+	 */
+	public int getPlaceholderCount() {
+		return this.bounds.length / 2 - 1;
+	}
+
+	/**
+	 * Gets the throwable that ends the arguments, if it is not consumed by a placeholder.
+	 *
+	 * @param args The arguments.
+	 * @return The throwable or null.
+	 */
+	public Throwable getThrowable(Object[] args) {
+		if (args.length > getPlaceholderCount()) {
+			Object last = args[args.length - 1];
+			if (last instanceof Throwable)
+				return (Throwable) last;
+		}
+		return null;
+	}
+
+	/**
+	 * Formats the template with the arguments.
+	 * Placeholders without argument are left as is.
+	 *
+	 * @param args The arguments.
+	 * @return The formatted string.
+	 */
+	public String format(Object[] args) {
+		StringBuilder builder = new StringBuilder(this.template.length() + 16 * args.length);
+		format(args, builder);
+		return builder.toString();
+	}
+
+	/**
+	 * Formats the template with the arguments to a builder.
+	 * Placeholders without argument are left as is.
+	 *
+	 * @param args    The arguments.
+	 * @param builder The builder.
+	 */
+	public void format(Object[] args, StringBuilder builder) {
+		int[] bounds = this.bounds;
+		int placeholders = bounds.length / 2 - 1;
+
+		for (int i = 0; i < placeholders; i++) {
+			builder.append(this.template, bounds[2 * i], bounds[2 * i + 1]);
+			if (i < args.length)
+				appendArgument(args[i], builder);
+			else
+				builder.append("{}");
+		}
+		builder.append(this.template, bounds[bounds.length - 2], bounds[bounds.length - 1]);
+	}
+
+	private static void appendArgument(Object arg, StringBuilder builder) {
+		if (arg instanceof Object[])
+			builder.append(Arrays.deepToString((Object[]) arg));
+		else
+			builder.append(arg);
+	}
+
+	/**
+	 * Gets the parsed template for the given string.
+	 *
+	 * @param template The template string.
+	 * @return The parsed template.
+	 */
+	public static MessageTemplate of(String template) {
+		if (template == null)
+			throw new IllegalArgumentException("template");
+
+		// Entries are immutable so a racy cache is safe, a miss only costs a new parsing.
+		int index = System.identityHashCode(template) & (CACHE_SIZE - 1);
+		MessageTemplate t = cache[index];
+		if (t == null || t.template != template) {
+			t = new MessageTemplate(template);
+			cache[index] = t;
+		}
+		return t;
+	}
+}
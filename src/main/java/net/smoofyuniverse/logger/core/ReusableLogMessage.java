@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.smoofyuniverse.logger.core;
+
+import java.util.function.Supplier;
+
+/**
+ * A {@link LogMessage} reused by a logger for each message of a thread in garbage-free mode.
+ * Unlike other messages, its fields change between messages.
+ */
+final class ReusableLogMessage extends LogMessage {
+	private ILogger logger;
+	private LogLevel level;
+	private long timestamp;
+	private Thread thread;
+	private Throwable throwable;
+
+	// Fills this message, exactly one text source must be non-null.
+	void set(ILogger logger, LogLevel level, long timestamp, Thread thread, Throwable throwable, String text, Supplier<String> textSupplier, MessageTemplate template, Object[] args) {
+		this.logger = logger;
+		this.level = level;
+		this.timestamp = timestamp;
+		this.thread = thread;
+		this.throwable = throwable;
+		setText(text, textSupplier, template, args);
+	}
+
+	@Override
+	void clear() {
+		this.logger = null;
+		this.level = null;
+		this.timestamp = 0;
+		this.thread = null;
+		this.throwable = null;
+		super.clear();
+	}
+
+	// Whether this message is currently filled.
+	boolean isInUse() {
+		return this.logger != null;
+	}
+
+	@Override
+	public ILogger getLogger() {
+		return this.logger;
+	}
+
+	@Override
+	public LogLevel getLevel() {
+		return this.level;
+	}
+
+	@Override
+	public long getTimestamp() {
+		return this.timestamp;
+	}
+
+	@Override
+	public Thread getThread() {
+		return this.thread;
+	}
+
+	@Override
+	public Throwable getThrowable() {
+		return this.throwable;
+	}
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.smoofyuniverse.logger.filter;
+
+import net.smoofyuniverse.logger.core.LogLevel;
+import net.smoofyuniverse.logger.core.LogMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link LogFilter} evaluating a flattened tree of filters.
+ * <p>
+ * The combination of {@link ParentFilter} is associative, so nested parents are flattened into a single list.
+ * Subclasses of {@link ParentFilter} are not flattened and are evaluated like any other filter.
+ * Scores of {@link LevelFilter}s are precomputed for every level, scores of {@link LoggerFilter}s are cached per logger name,
+ * and remaining filters are evaluated in order until a {@link LogFilter#VETO} is reached.
+ * <p>
+ * The tree is captured when compiled: later changes to the children of a parent are not visible.
+ */
+public final class CompiledFilter implements LogFilter {
+	private final int[] levelScores;
+	private final LoggerFilter[] loggerFilters;
+	private final Map<String, Integer> loggerScores;
+	private final LogFilter[] filters;
+
+	private CompiledFilter(int[] levelScores, LoggerFilter[] loggerFilters, LogFilter[] filters) {
+		this.levelScores = levelScores;
+		this.loggerFilters = loggerFilters;
+		this.loggerScores = loggerFilters.length == 0 ? null : new ConcurrentHashMap<>();
+		this.filters = filters;
+	}
+
+	@Override
+	public int applyAsInt(LogMessage message) {
+		int value = this.levelScores[message.getLevel().ordinal()];
+		if (value <= VETO)
+			return value;
+		int min = 0, max = 0;
+		if (value < 0)
+			min = value;
+		else
+			max = value;
+
+		if (this.loggerScores != null) {
+			value = getLoggerScore(message.getLogger().getName());
+			if (value <= VETO)
+				return value;
+			if (value < min)
+				min = value;
+			else if (value > max)
+				max = value;
+		}
+
+		for (LogFilter f : this.filters) {
+			value = f.applyAsInt(message);
+			if (value <= VETO)
+				return value;
+			if (value < min)
+				min = value;
+			else if (value > max)
+				max = value;
+		}
+
+		return max > -min ? max : min;
+	}
+
+	private int getLoggerScore(String logger) {
+		Integer value = this.loggerScores.get(logger);
+		if (value == null) {
+			int min = 0, max = 0;
+			for (LoggerFilter f : this.loggerFilters) {
+				int v = f.score(logger);
+				if (v < min)
+					min = v;
+				else if (v > max)
+					max = v;
+			}
+			value = max > -min ? max : min;
+			this.loggerScores.put(logger, value);
+		}
+		return value;
+	}
+
+	/**
+	 * Compiles a filter.
+	 *
+	 * @param filter The filter.
+	 * @return The compiled filter, or the filter itself if it cannot be simplified.
+	 */
+	public static LogFilter compile(LogFilter filter) {
+		if (filter == null)
+			throw new IllegalArgumentException("filter");
+		if (!isFlattenable(filter))
+			return filter;
+
+		List<LevelFilter> levelFilters = new ArrayList<>();
+		List<LoggerFilter> loggerFilters = new ArrayList<>();
+		List<LogFilter> filters = new ArrayList<>();
+		flatten(filter, levelFilters, loggerFilters, filters);
+
+		LogLevel[] levels = LogLevel.values();
+		int[] levelScores = new int[levels.length];
+		for (LogLevel level : levels) {
+			int min = 0, max = 0;
+			for (LevelFilter f : levelFilters) {
+				int v = f.score(level);
+				if (v < min)
+					min = v;
+				else if (v > max)
+					max = v;
+			}
+			levelScores[level.ordinal()] = max > -min ? max : min;
+		}
+
+		return new CompiledFilter(levelScores, loggerFilters.toArray(new LoggerFilter[0]), filters.toArray(new LogFilter[0]));
+	}
+
+	private static void flatten(LogFilter filter, List<LevelFilter> levelFilters, List<LoggerFilter> loggerFilters, List<LogFilter> filters) {
+		if (isFlattenable(filter)) {
+			for (LogFilter child : ((ParentFilter) filter).children)
+				flatten(child, levelFilters, loggerFilters, filters);
+		} else if (filter instanceof LevelFilter) {
+			levelFilters.add((LevelFilter) filter);
+		} else if (filter instanceof LoggerFilter) {
+			loggerFilters.add((LoggerFilter) filter);
+		} else {
+			filters.add(filter);
+		}
+	}
+
+	// Subclasses may override the combination, so they are evaluated as opaque filters.
+	private static boolean isFlattenable(LogFilter filter) {
+		return filter.getClass() == ParentFilter.class;
+	}
+}
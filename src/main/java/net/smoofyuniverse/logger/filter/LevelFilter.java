@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.smoofyuniverse.logger.filter;
+
+import net.smoofyuniverse.logger.core.LogLevel;
+import net.smoofyuniverse.logger.core.LogMessage;
+
+/**
+ * A {@link LogFilter} whose score only depends on the level of the message.
+ * {@link CompiledFilter} precomputes the scores of such filters for every level.
+ */
+@FunctionalInterface
+public interface LevelFilter extends LogFilter {
+
+	/**
+	 * Gets score for this level.
+	 *
+	 * @param level The level.
+	 * @return The score.
+	 */
+	int score(LogLevel level);
+
+	@Override
+	default int applyAsInt(LogMessage message) {
+		return score(message.getLevel());
+	}
+
+	/**
+	 * Creates a filter denying levels lower than the minimum level.
+	 *
+	 * @param minLevel The minimum level.
+	 * @param score    The score of denied levels.
+	 * @return The filter.
+	 */
+	static LevelFilter minimum(LogLevel minLevel, int score) {
+		if (minLevel == null)
+			throw new IllegalArgumentException("minLevel");
+		if (score >= 0)
+			throw new IllegalArgumentException("score");
+		return level -> level.ordinal() >= minLevel.ordinal() ? 0 : score;
+	}
+}
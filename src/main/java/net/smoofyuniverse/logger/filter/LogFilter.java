@@ -35,6 +35,11 @@ import java.util.function.ToIntFunction;
  * If the value is strictly negative, the message is denied.
  */
 public interface LogFilter extends ToIntFunction<LogMessage>, Predicate<LogMessage> {
+	/**
+	 * The strongest denial score.
+	 * A {@link ParentFilter} cannot override it with a positive score.
+	 */
+	int VETO = -Integer.MAX_VALUE;
 
 	/**
 	 * Gets whether this log message is allowed.
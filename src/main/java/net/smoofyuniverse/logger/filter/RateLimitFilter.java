@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.smoofyuniverse.logger.filter;
+
+import net.smoofyuniverse.logger.core.ILogger;
+import net.smoofyuniverse.logger.core.LogMessage;
+import net.smoofyuniverse.logger.core.MessageTemplate;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A {@link LogFilter} limiting the rate of messages per key.
+ * <p>
+ * Each key has a token bucket allowing bursts up to the capacity and refilled at the given rate.
+ * A bucket is stored as a single theoretical arrival time updated with compare-and-set, so the filter never locks.
+ * Denied messages are counted and periodically reported to an optional logger.
+ * Reports and the removal of idle buckets are spread over the following messages, a few buckets at a time.
+ * Once the number of keys reaches the maximum, messages with new keys share a single overflow bucket.
+ */
+public class RateLimitFilter implements LogFilter {
+	/**
+	 * A key function grouping messages by logger name.
+	 */
+	public static final Function<LogMessage, Object> BY_LOGGER = msg -> msg.getLogger().getName();
+
+	/**
+	 * A key function grouping messages by level.
+	 */
+	public static final Function<LogMessage, Object> BY_LEVEL = msg -> msg.getLevel();
+
+	/**
+	 * A key function grouping messages by template.
+	 * Messages without a template are grouped by logger name, so their text is never formatted.
+	 */
+	public static final Function<LogMessage, Object> BY_TEMPLATE = msg -> {
+		MessageTemplate template = msg.getTemplate();
+		return template == null ? msg.getLogger().getName() : template.template;
+	};
+
+	public final Function<LogMessage, Object> keyFunction;
+	public final double rate;
+	public final int capacity;
+	public final int deniedScore;
+	public final ILogger reporter;
+	public final long reportPeriodMillis;
+	public final int maxKeys;
+
+	private static final int SWEEP_BATCH = 32;
+
+	private final long interval, tolerance, reportPeriod;
+	private final Map<Object, Bucket> buckets = new ConcurrentHashMap<>();
+	private final AtomicLong nextReport;
+	private final AtomicBoolean sweeping = new AtomicBoolean();
+	// The current sweep, guarded by sweeping.
+	private Iterator<Bucket> sweepIterator;
+	private final Bucket overflow = new Bucket("<overflow>", System.nanoTime());
+
+	/**
+	 * @param keyFunction        The function computing the key of a message.
+	 * @param rate               The number of messages allowed per second and per key.
+	 * @param capacity           The maximum burst of messages per key.
+	 * @param deniedScore        The negative score of denied messages.
+	 * @param reporter           The logger reporting the number of denied messages, may be null.
+	 * @param reportPeriodMillis The period of reports and of the removal of idle buckets.
+	 * @param maxKeys            The maximum number of keys with their own bucket.
+	 */
+	public RateLimitFilter(Function<LogMessage, Object> keyFunction, double rate, int capacity, int deniedScore, ILogger reporter, long reportPeriodMillis, int maxKeys) {
+		if (keyFunction == null)
+			throw new IllegalArgumentException("keyFunction");
+		if (!(rate > 0))
+			throw new IllegalArgumentException("rate");
+		if (capacity <= 0)
+			throw new IllegalArgumentException("capacity");
+		if (deniedScore >= 0)
+			throw new IllegalArgumentException("deniedScore");
+		if (reportPeriodMillis <= 0)
+			throw new IllegalArgumentException("reportPeriodMillis");
+		if (maxKeys <= 0)
+			throw new IllegalArgumentException("maxKeys");
+
+		this.keyFunction = keyFunction;
+		this.rate = rate;
+		this.capacity = capacity;
+		this.deniedScore = deniedScore;
+		this.reporter = reporter;
+		this.reportPeriodMillis = reportPeriodMillis;
+		this.maxKeys = maxKeys;
+
+		this.interval = Math.max(1, (long) (1_000_000_000L / rate));
+		this.tolerance = this.interval * (capacity - 1);
+		this.reportPeriod = reportPeriodMillis * 1_000_000L;
+		this.nextReport = new AtomicLong(System.nanoTime() + this.reportPeriod);
+	}
+
+	@Override
+	public int applyAsInt(LogMessage message) {
+		long now = System.nanoTime();
+
+		if (now - this.nextReport.get() >= 0 && this.sweeping.compareAndSet(false, true)) {
+			try {
+				sweep(now);
+			} finally {
+				this.sweeping.set(false);
+			}
+		}
+
+		Bucket bucket = getBucket(this.keyFunction.apply(message), now);
+		if (bucket.tryAcquire(now))
+			return 0;
+
+		bucket.suppressed.increment();
+		return this.deniedScore;
+	}
+
+	private Bucket getBucket(Object key, long now) {
+		Bucket bucket = this.buckets.get(key);
+		if (bucket != null)
+			return bucket;
+		// The size is approximate under contention, the bound may be exceeded by a few keys.
+		if (this.buckets.size() >= this.maxKeys)
+			return this.overflow;
+		return this.buckets.computeIfAbsent(key, k -> new Bucket(k, now));
+	}
+
+	// Visits a bounded number of buckets, the sweep continues on the next messages until all buckets are visited.
+	private void sweep(long now) {
+		if (this.sweepIterator == null)
+			this.sweepIterator = this.buckets.values().iterator();
+
+		Iterator<Bucket> it = this.sweepIterator;
+		for (int i = 0; i < SWEEP_BATCH; i++) {
+			if (!it.hasNext()) {
+				report(this.overflow);
+				this.sweepIterator = null;
+				this.nextReport.set(now + this.reportPeriod);
+				return;
+			}
+			Bucket bucket = it.next();
+			if (!report(bucket) && bucket.isIdle(now))
+				it.remove();
+		}
+	}
+
+	private boolean report(Bucket bucket) {
+		long suppressed = bucket.suppressed.sumThenReset();
+		if (suppressed == 0)
+			return false;
+		if (this.reporter != null)
+			this.reporter.warn("Suppressed " + suppressed + " messages for key: " + bucket.key);
+		return true;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	private final class Bucket {
+		private final Object key;
+		private final AtomicLong arrivalTime;
+		private final LongAdder suppressed = new LongAdder();
+
+		// A bucket starts full at the time of the message creating it.
+		private Bucket(Object key, long now) {
+			this.key = key;
+			this.arrivalTime = new AtomicLong(now);
+		}
+
+		private boolean tryAcquire(long now) {
+			while (true) {
+				long current = this.arrivalTime.get();
+				long start = now - current > 0 ? now : current;
+				if (start - now > tolerance)
+					return false;
+				if (this.arrivalTime.compareAndSet(current, start + interval))
+					return true;
+			}
+		}
+
+		// A full bucket holds no information.
+		private boolean isIdle(long now) {
+			return now - this.arrivalTime.get() >= 0;
+		}
+	}
+
+	public static class Builder {
+		private Function<LogMessage, Object> keyFunction = BY_LOGGER;
+		private double rate = 100;
+		private int capacity = 100;
+		private int deniedScore = VETO;
+		private ILogger reporter;
+		private long reportPeriodMillis = 10_000;
+		private int maxKeys = 10_000;
+
+		private Builder() {}
+
+		public Builder keyFunction(Function<LogMessage, Object> value) {
+			this.keyFunction = value;
+			return this;
+		}
+
+		public Builder rate(double value) {
+			this.rate = value;
+			return this;
+		}
+
+		public Builder capacity(int value) {
+			this.capacity = value;
+			return this;
+		}
+
+		public Builder deniedScore(int value) {
+			this.deniedScore = value;
+			return this;
+		}
+
+		public Builder reporter(ILogger value) {
+			this.reporter = value;
+			return this;
+		}
+
+		public Builder reportPeriodMillis(long value) {
+			this.reportPeriodMillis = value;
+			return this;
+		}
+
+		public Builder maxKeys(int value) {
+			this.maxKeys = value;
+			return this;
+		}
+
+		public RateLimitFilter build() {
+			return new RateLimitFilter(this.keyFunction, this.rate, this.capacity, this.deniedScore, this.reporter, this.reportPeriodMillis, this.maxKeys);
+		}
+	}
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.smoofyuniverse.logger.filter;
+
+import net.smoofyuniverse.logger.core.LogLevel;
+import net.smoofyuniverse.logger.core.LogMessage;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link LogFilter} keeping a sample of messages per level and logger.
+ * <p>
+ * A rule either keeps one message out of N or keeps each message with a given probability.
+ * Rules of a logger also apply to its descendants, for each level unless they have their own rule for that level.
+ * Counters and random generators are per thread so the filter has no shared mutable state.
+ * Given a seed, the decisions of each thread are deterministic.
+ */
+public class SamplingFilter implements LogFilter {
+	public final boolean keepThrowables;
+	public final int deniedScore;
+
+	private final Rule[] levelRules;
+	private final Map<String, Rule[]> loggerRules;
+	private final Map<String, Rule[]> resolvedRules = new ConcurrentHashMap<>();
+	private final int ruleCount;
+	private final ThreadLocal<State> states;
+
+	private SamplingFilter(Builder builder) {
+		if (builder.deniedScore >= 0)
+			throw new IllegalArgumentException("deniedScore");
+
+		this.keepThrowables = builder.keepThrowables;
+		this.deniedScore = builder.deniedScore;
+
+		int index = 0;
+		this.levelRules = new Rule[LogLevel.values().length];
+		for (int i = 0; i < this.levelRules.length; i++) {
+			Rule r = builder.levelRules[i];
+			if (r != null)
+				this.levelRules[i] = r.withIndex(index++);
+		}
+
+		this.loggerRules = new HashMap<>();
+		for (Map.Entry<String, Rule[]> e : builder.loggerRules.entrySet()) {
+			// Levels without rule for this logger are resolved from its ancestors.
+			Rule[] rules = new Rule[this.levelRules.length];
+			for (int i = 0; i < rules.length; i++) {
+				Rule r = e.getValue()[i];
+				if (r != null)
+					rules[i] = r.withIndex(index++);
+			}
+			this.loggerRules.put(e.getKey(), rules);
+		}
+
+		this.ruleCount = index;
+
+		if (builder.seed == null) {
+			this.states = ThreadLocal.withInitial(() -> new State(this.ruleCount, null));
+		} else {
+			long seed = builder.seed;
+			AtomicLong threads = new AtomicLong();
+			this.states = ThreadLocal.withInitial(() -> new State(this.ruleCount, new SplittableRandom(seed + threads.getAndIncrement())));
+		}
+	}
+
+	@Override
+	public int applyAsInt(LogMessage message) {
+		if (this.keepThrowables && message.getThrowable() != null)
+			return 0;
+
+		Rule rule = getRules(message.getLogger().getName())[message.getLevel().ordinal()];
+		if (rule == null || rule.keep(this.states.get()))
+			return 0;
+		return this.deniedScore;
+	}
+
+	private Rule[] getRules(String logger) {
+		if (this.loggerRules.isEmpty())
+			return this.levelRules;
+
+		Rule[] rules = this.resolvedRules.get(logger);
+		if (rules == null) {
+			rules = resolveRules(logger);
+			this.resolvedRules.put(logger, rules);
+		}
+		return rules;
+	}
+
+	private Rule[] resolveRules(String logger) {
+		Rule[] rules = new Rule[this.levelRules.length];
+		for (int level = 0; level < rules.length; level++)
+			rules[level] = resolveRule(logger, level);
+		return rules;
+	}
+
+	// Each level is resolved separately from the closest ancestor with a rule for it, then from the level rules.
+	private Rule resolveRule(String logger, int level) {
+		String name = logger;
+		while (true) {
+			Rule[] rules = this.loggerRules.get(name);
+			if (rules != null && rules[level] != null)
+				return rules[level];
+
+			int i = name.lastIndexOf('.');
+			if (i <= 0)
+				return this.levelRules[level];
+			name = name.substring(0, i);
+		}
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	private static final class State {
+		private final long[] counters;
+		private final SplittableRandom random;
+
+		private State(int size, SplittableRandom random) {
+			this.counters = new long[size];
+			this.random = random;
+		}
+
+		private double nextDouble() {
+			return this.random == null ? ThreadLocalRandom.current().nextDouble() : this.random.nextDouble();
+		}
+	}
+
+	private static final class Rule {
+		private final int oneIn;
+		private final double fraction;
+		private final int index;
+
+		private Rule(int oneIn, double fraction, int index) {
+			this.oneIn = oneIn;
+			this.fraction = fraction;
+			this.index = index;
+		}
+
+		private Rule withIndex(int index) {
+			return new Rule(this.oneIn, this.fraction, index);
+		}
+
+		private boolean keep(State state) {
+			if (this.oneIn != 0)
+				return state.counters[this.index]++ % this.oneIn == 0;
+			return state.nextDouble() < this.fraction;
+		}
+	}
+
+	public static class Builder {
+		private final Rule[] levelRules = new Rule[LogLevel.values().length];
+		private final Map<String, Rule[]> loggerRules = new HashMap<>();
+		private boolean keepThrowables = true;
+		private int deniedScore = -1;
+		private Long seed;
+
+		private Builder() {}
+
+		/**
+		 * Keeps one message out of N for the level.
+		 */
+		public Builder oneIn(LogLevel level, int n) {
+			this.levelRules[level.ordinal()] = oneInRule(n);
+			return this;
+		}
+
+		/**
+		 * Keeps each message of the level with the given probability.
+		 */
+		public Builder fraction(LogLevel level, double fraction) {
+			this.levelRules[level.ordinal()] = fractionRule(fraction);
+			return this;
+		}
+
+		/**
+		 * Keeps one message out of N for the level and the logger, including its descendants.
+		 */
+		public Builder oneIn(String logger, LogLevel level, int n) {
+			getLoggerRules(logger)[level.ordinal()] = oneInRule(n);
+			return this;
+		}
+
+		/**
+		 * Keeps each message of the level and the logger, including its descendants, with the given probability.
+		 */
+		public Builder fraction(String logger, LogLevel level, double fraction) {
+			getLoggerRules(logger)[level.ordinal()] = fractionRule(fraction);
+			return this;
+		}
+
+		public Builder keepThrowables(boolean value) {
+			this.keepThrowables = value;
+			return this;
+		}
+
+		public Builder deniedScore(int value) {
+			this.deniedScore = value;
+			return this;
+		}
+
+		public Builder seed(long value) {
+			this.seed = value;
+			return this;
+		}
+
+		private Rule[] getLoggerRules(String logger) {
+			if (logger == null)
+				throw new IllegalArgumentException("logger");
+			return this.loggerRules.computeIfAbsent(logger, k -> new Rule[LogLevel.values().length]);
+		}
+
+		private static Rule oneInRule(int n) {
+			if (n <= 0)
+				throw new IllegalArgumentException("n");
+			return new Rule(n, 0, -1);
+		}
+
+		private static Rule fractionRule(double fraction) {
+			if (!(fraction >= 0 && fraction <= 1))
+				throw new IllegalArgumentException("fraction");
+			return new Rule(0, fraction, -1);
+		}
+
+		public SamplingFilter build() {
+			return new SamplingFilter(this);
+		}
+	}
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.smoofyuniverse.logger.formatter;
+
+import net.smoofyuniverse.logger.core.LogFields;
+import net.smoofyuniverse.logger.core.LogMessage;
+
+import java.time.format.DateTimeFormatter;
+
+/**
+ * A {@link LogFormatter} writing each message as a JSON object on a single line (NDJSON).
+ * <p>
+ * The object contains the time, level, logger, thread, message, fields if any and stack trace if any.
+ * Strings are escaped directly into the builder, without intermediate representation.
+ * Non-finite doubles are written as strings since JSON cannot represent them.
+ */
+public class JsonFormatter implements LogFormatter {
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	public final ThrowableRenderer renderer;
+
+	public JsonFormatter() {
+		this(ThrowableRenderer.DEFAULT);
+	}
+
+	public JsonFormatter(ThrowableRenderer renderer) {
+		if (renderer == null)
+			throw new IllegalArgumentException("renderer");
+		this.renderer = renderer;
+	}
+
+	@Override
+	public void format(LogMessage message, StringBuilder builder) {
+		builder.append("{\"time\":\"");
+		DateTimeFormatter.ISO_INSTANT.formatTo(message.getInstant(), builder);
+		builder.append("\",\"level\":\"").append(message.getLevel().name());
+		builder.append("\",\"logger\":");
+		appendString(message.getLogger().getName(), builder);
+		builder.append(",\"thread\":");
+		appendString(message.getThread().getName(), builder);
+		builder.append(",\"message\":\"");
+		appendText(message, builder);
+
+		LogFields fields = message.getFields();
+		if (fields != null && fields.size() != 0) {
+			builder.append(",\"fields\":{");
+			for (int i = 0; i < fields.size(); i++) {
+				if (i != 0)
+					builder.append(',');
+				appendString(fields.getKey(i), builder);
+				builder.append(':');
+				appendValue(fields, i, builder);
+			}
+			builder.append('}');
+		}
+
+		if (message.getThrowable() != null) {
+			StringBuilder stackTrace = new StringBuilder(1024);
+			message.appendStackTrace(stackTrace, this.renderer);
+			builder.append(",\"stackTrace\":");
+			appendString(stackTrace, builder);
+		} else {
+			String stackTrace = message.getStackTrace();
+			if (!stackTrace.isEmpty()) {
+				builder.append(",\"stackTrace\":");
+				appendString(stackTrace, builder);
+			}
+		}
+
+		builder.append("}\n");
+	}
+
+	@Override
+	public boolean formatsStackTrace() {
+		return true;
+	}
+
+	// Formats the text in place, escaping it afterwards only if needed.
+	private static void appendText(LogMessage message, StringBuilder builder) {
+		int start = builder.length();
+		message.appendText(builder);
+		for (int i = start; i < builder.length(); i++) {
+			char c = builder.charAt(i);
+			if (c < 0x20 || c == '"' || c == '\\' || c == '\u2028' || c == '\u2029') {
+				String text = builder.substring(start);
+				builder.setLength(start - 1);
+				appendString(text, builder);
+				return;
+			}
+		}
+		builder.append('"');
+	}
+
+	private static void appendValue(LogFields fields, int index, StringBuilder builder) {
+		switch (fields.getType(index)) {
+			case LONG:
+				builder.append(fields.getLong(index));
+				break;
+			case DOUBLE:
+				double d = fields.getDouble(index);
+				if (Double.isNaN(d) || Double.isInfinite(d))
+					builder.append('"').append(d).append('"');
+				else
+					builder.append(d);
+				break;
+			case BOOLEAN:
+				builder.append(fields.getBoolean(index));
+				break;
+			default:
+				Object value = fields.getValue(index);
+				if (value == null)
+					builder.append("null");
+				else
+					appendString(value instanceof CharSequence ? (CharSequence) value : String.valueOf(value), builder);
+		}
+	}
+
+	/**
+	 * Appends a JSON string literal to a builder.
+	 *
+	 * @param value   The value.
+	 * @param builder The builder.
+	 */
+	public static void appendString(CharSequence value, StringBuilder builder) {
+		builder.append('"');
+		int n = value.length(), start = 0;
+		for (int i = 0; i < n; i++) {
+			char c = value.charAt(i);
+			if (c >= 0x20 && c != '"' && c != '\\' && c != '\u2028' && c != '\u2029')
+				continue;
+
+			// Characters that do not need escaping are appended in runs.
+			// Line and paragraph separators are escaped since some JSON consumers treat them as line breaks.
+			builder.append(value, start, i);
+			start = i + 1;
+			switch (c) {
+				case '"':
+					builder.append("\\\"");
+					break;
+				case '\\':
+					builder.append("\\\\");
+					break;
+				case '\n':
+					builder.append("\\n");
+					break;
+				case '\r':
+					builder.append("\\r");
+					break;
+				case '\t':
+					builder.append("\\t");
+					break;
+				case '\b':
+					builder.append("\\b");
+					break;
+				case '\f':
+					builder.append("\\f");
+					break;
+				default:
+					builder.append("\\u").append(HEX[c >> 12]).append(HEX[(c >> 8) & 0xF]).append(HEX[(c >> 4) & 0xF]).append(HEX[c & 0xF]);
+			}
+		}
+		builder.append(value, start, n).append('"');
+	}
+}
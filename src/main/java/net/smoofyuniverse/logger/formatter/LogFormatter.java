@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.smoofyuniverse.logger.formatter;
+
+import net.smoofyuniverse.logger.core.LogMessage;
+
+import java.util.function.Function;
+
+/**
+ * A log formatter.
+ * <p>
+ * Appends the formatted message to a builder supplied by the caller,
+ * which allows the builder to be reused without creating an intermediate string.
+ */
+public interface LogFormatter extends Function<LogMessage, String> {
+
+	/**
+	 * Formats the log message.
+	 *
+	 * @param message The log message.
+	 * @param builder The builder to append to.
+	 */
+	void format(LogMessage message, StringBuilder builder);
+
+	/**
+	 * Gets whether this formatter already includes the stack trace.
+	 * When false, the stack trace is appended separately after the formatted message.
+	 *
+	 * @return Whether the stack trace is included.
+	 */
+	default boolean formatsStackTrace() {
+		return false;
+	}
+
+	/**
+	 * Formats the log message to a new string.
+	 *
+	 * @param message The log message.
+	 * @return The formatted string.
+	 */
+	@Override
+	default String apply(LogMessage message) {
+		StringBuilder builder = new StringBuilder();
+		format(message, builder);
+		return builder.toString();
+	}
+
+	/**
+	 * Adapts a function to a log formatter.
+	 *
+	 * @param function The function.
+	 * @return The log formatter.
+	 */
+	static LogFormatter of(Function<LogMessage, String> function) {
+		if (function == null)
+			throw new IllegalArgumentException("function");
+		if (function instanceof LogFormatter)
+			return (LogFormatter) function;
+		return (message, builder) -> builder.append(function.apply(message));
+	}
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.smoofyuniverse.logger.formatter;
+
+import net.smoofyuniverse.logger.core.LogMessage;
+
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link LogFormatter} following a pattern.
+ * The pattern is compiled once into an array of segments.
+ * <p>
+ * Supported conversions:
+ * <ul>
+ * <li>{@code %d{pattern}} or {@code %date{pattern}}: the date and time in the system default zone, formatted with a {@link DateTimeFormatter} pattern (defaults to {@code HH:mm:ss})</li>
+ * <li>{@code %thread} or {@code %t}: the thread name</li>
+ * <li>{@code %logger} or {@code %c}: the logger name</li>
+ * <li>{@code %level} or {@code %p}: the level</li>
+ * <li>{@code %msg} or {@code %m}: the text</li>
+ * <li>{@code %n}: the line separator</li>
+ * <li>{@code %ex{depth}}: the stack trace, optionally limited to a number of frames per throwable</li>
+ * <li>{@code %%}: a percent sign</li>
+ * </ul>
+ */
+public class PatternFormatter implements LogFormatter {
+	public static final String DEFAULT_TIME_PATTERN = "HH:mm:ss";
+
+	public final String pattern;
+
+	private final LogFormatter[] segments;
+	private final boolean stackTrace;
+
+	public PatternFormatter(String pattern) {
+		if (pattern == null)
+			throw new IllegalArgumentException("pattern");
+		this.pattern = pattern;
+
+		List<LogFormatter> segments = new ArrayList<>();
+		StringBuilder literal = new StringBuilder();
+		boolean stackTrace = false;
+
+		int i = 0, length = pattern.length();
+		while (i < length) {
+			char c = pattern.charAt(i++);
+			if (c != '%') {
+				literal.append(c);
+				continue;
+			}
+
+			if (i == length)
+				throw new IllegalArgumentException("Incomplete conversion at index " + (i - 1));
+
+			if (pattern.charAt(i) == '%') {
+				literal.append('%');
+				i++;
+				continue;
+			}
+
+			int start = i;
+			while (i < length && Character.isLetter(pattern.charAt(i)))
+				i++;
+			String name = pattern.substring(start, i);
+
+			String option = null;
+			if (i < length && pattern.charAt(i) == '{') {
+				int end = pattern.indexOf('}', i);
+				if (end == -1)
+					throw new IllegalArgumentException("Unclosed option at index " + i);
+				option = pattern.substring(i + 1, end);
+				i = end + 1;
+			}
+
+			if (literal.length() != 0) {
+				segments.add(literal(literal.toString()));
+				literal.setLength(0);
+			}
+
+			switch (name) {
+				case "d":
+				case "date":
+					segments.add(new TimeSegment(option == null ? DEFAULT_TIME_PATTERN : option));
+					break;
+				case "t":
+				case "thread":
+					segments.add((msg, builder) -> builder.append(msg.getThread().getName()));
+					break;
+				case "c":
+				case "logger":
+					segments.add((msg, builder) -> builder.append(msg.getLogger().getName()));
+					break;
+				case "p":
+				case "level":
+					segments.add((msg, builder) -> builder.append(msg.getLevel().name()));
+					break;
+				case "m":
+				case "msg":
+					segments.add((msg, builder) -> msg.appendText(builder));
+					break;
+				case "n":
+					literal.append(System.lineSeparator());
+					break;
+				case "ex":
+					ThrowableRenderer renderer = option == null ? ThrowableRenderer.DEFAULT : new ThrowableRenderer(Integer.parseInt(option), new String[0], 64);
+					segments.add((msg, builder) -> msg.appendStackTrace(builder, renderer));
+					stackTrace = true;
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown conversion: " + name);
+			}
+		}
+
+		if (literal.length() != 0)
+			segments.add(literal(literal.toString()));
+
+		this.segments = segments.toArray(new LogFormatter[0]);
+		this.stackTrace = stackTrace;
+	}
+
+	private static LogFormatter literal(String value) {
+		return (msg, builder) -> builder.append(value);
+	}
+
+	@Override
+	public void format(LogMessage message, StringBuilder builder) {
+		for (LogFormatter segment : this.segments)
+			segment.format(message, builder);
+	}
+
+	@Override
+	public boolean formatsStackTrace() {
+		return this.stackTrace;
+	}
+
+	/**
+	 * A segment formatting the time.
+	 * The rendering is cached per second and milliseconds are appended separately when they end the pattern.
+	 */
+	private static final class TimeSegment implements LogFormatter {
+		private final DateTimeFormatter formatter;
+		private final boolean cacheable, millis;
+		private volatile CachedTime cache;
+
+		private TimeSegment(String pattern) {
+			int length = pattern.length();
+			// Exactly three fraction digits outside of a quoted literal, SSSS and longer need the full formatter.
+			boolean millis = pattern.endsWith("SSS") && (length == 3 || pattern.charAt(length - 4) != 'S') && countQuotes(pattern) % 2 == 0;
+			String prefix = millis ? pattern.substring(0, pattern.length() - 3) : pattern;
+
+			this.formatter = DateTimeFormatter.ofPattern(prefix);
+			this.millis = millis;
+			this.cacheable = prefix.indexOf('S') == -1 && prefix.indexOf('n') == -1 && prefix.indexOf('N') == -1 && prefix.indexOf('A') == -1;
+		}
+
+		private static int countQuotes(String pattern) {
+			int count = 0;
+			for (int i = 0; i < pattern.length(); i++) {
+				if (pattern.charAt(i) == '\'')
+					count++;
+			}
+			return count;
+		}
+
+		@Override
+		public void format(LogMessage message, StringBuilder builder) {
+			if (this.cacheable) {
+				long second = Math.floorDiv(message.getTimestamp(), 1_000_000_000L);
+				CachedTime cache = this.cache;
+				if (cache == null || cache.second != second) {
+					cache = new CachedTime(second, this.formatter.format(message.getDateTime()));
+					this.cache = cache;
+				}
+				builder.append(cache.text);
+			} else {
+				this.formatter.formatTo(message.getDateTime(), builder);
+			}
+
+			if (this.millis) {
+				int value = (int) (Math.floorMod(message.getTimestamp(), 1_000_000_000L) / 1_000_000);
+				builder.append((char) ('0' + value / 100)).append((char) ('0' + value / 10 % 10)).append((char) ('0' + value % 10));
+			}
+		}
+	}
+
+	private static final class CachedTime {
+		private final long second;
+		private final String text;
+
+		private CachedTime(long second, String text) {
+			this.second = second;
+			this.text = text;
+		}
+	}
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.smoofyuniverse.logger.formatter;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Renders throwables in the format of {@link Throwable#printStackTrace()} directly into a builder.
+ * <p>
+ * The number of frames rendered per throwable can be limited and consecutive frames of classes
+ * matching a package prefix can be collapsed into a single line.
+ * Rendered traces can be cached both by identity of the throwable and by content of the trace,
+ * so that a throwable logged repeatedly or a storm of identical throwables is rendered once.
+ * An identity entry is reused only if the throwable still has the same cause and number of suppressed throwables,
+ * other changes to a throwable already rendered, such as a new stack trace, are not detected.
+ */
+public class ThrowableRenderer {
+	/**
+	 * The default renderer, without limit and with a small cache.
+	 */
+	public static final ThrowableRenderer DEFAULT = new ThrowableRenderer(Integer.MAX_VALUE, new String[0], 64);
+
+	private static final String LINE_SEPARATOR = System.lineSeparator();
+
+	public final int maxDepth;
+	private final String[] collapsedPrefixes;
+	private final IdentityEntry[] identityCache;
+	private final ContentEntry[] contentCache;
+
+	/**
+	 * @param maxDepth          The maximum number of frames rendered per throwable.
+	 * @param collapsedPrefixes The class name prefixes of collapsed frames.
+	 * @param cacheSize         The size of each cache, rounded to a power of two, or 0 to disable caching.
+	 */
+	public ThrowableRenderer(int maxDepth, String[] collapsedPrefixes, int cacheSize) {
+		if (maxDepth < 0)
+			throw new IllegalArgumentException("maxDepth");
+		if (collapsedPrefixes == null)
+			throw new IllegalArgumentException("collapsedPrefixes");
+		if (cacheSize < 0)
+			throw new IllegalArgumentException("cacheSize");
+
+		this.maxDepth = maxDepth;
+		this.collapsedPrefixes = collapsedPrefixes.clone();
+
+		if (cacheSize == 0) {
+			this.identityCache = null;
+			this.contentCache = null;
+		} else {
+			int size = Integer.highestOneBit(cacheSize - 1) << 1;
+			if (size <= 0)
+				size = 1;
+			this.identityCache = new IdentityEntry[size];
+			this.contentCache = new ContentEntry[size];
+		}
+	}
+
+	/**
+	 * Renders the throwable to a string.
+	 *
+	 * @param throwable The throwable.
+	 * @return The rendered stack trace.
+	 */
+	public String render(Throwable throwable) {
+		StringBuilder builder = new StringBuilder(1024);
+		render(throwable, builder);
+		return builder.toString();
+	}
+
+	/**
+	 * Renders the throwable to a builder.
+	 *
+	 * @param throwable The throwable.
+	 * @param builder   The builder.
+	 */
+	public void render(Throwable throwable, StringBuilder builder) {
+		if (this.identityCache == null) {
+			renderTrace(throwable, builder);
+			return;
+		}
+
+		// Entries are immutable so racy caches are safe, a miss only costs a new rendering.
+		int identityIndex = System.identityHashCode(throwable) & (this.identityCache.length - 1);
+		IdentityEntry identityEntry = this.identityCache[identityIndex];
+		if (identityEntry != null && identityEntry.matches(throwable)) {
+			builder.append(identityEntry.text);
+			return;
+		}
+
+		Object[] signature = signature(throwable);
+		int hash = Arrays.deepHashCode(signature);
+		int contentIndex = hash & (this.contentCache.length - 1);
+		ContentEntry contentEntry = this.contentCache[contentIndex];
+
+		String text;
+		if (contentEntry != null && contentEntry.hash == hash && Arrays.deepEquals(contentEntry.signature, signature)) {
+			text = contentEntry.text;
+			builder.append(text);
+		} else {
+			int start = builder.length();
+			renderTrace(throwable, builder);
+			text = builder.substring(start);
+			this.contentCache[contentIndex] = new ContentEntry(hash, signature, text);
+		}
+
+		this.identityCache[identityIndex] = new IdentityEntry(throwable, text);
+	}
+
+	// Collects everything the rendering depends on, in rendering order.
+	private static Object[] signature(Throwable throwable) {
+		List<Object> list = new ArrayList<>();
+		signature(throwable, list, Collections.newSetFromMap(new IdentityHashMap<>()));
+		return list.toArray();
+	}
+
+	private static void signature(Throwable throwable, List<Object> list, Set<Throwable> visited) {
+		list.add(throwable.toString());
+		if (!visited.add(throwable))
+			return;
+
+		list.add(throwable.getStackTrace());
+		Throwable[] suppressed = throwable.getSuppressed();
+		list.add(suppressed.length);
+		for (Throwable s : suppressed)
+			signature(s, list, visited);
+
+		Throwable cause = throwable.getCause();
+		if (cause != null)
+			signature(cause, list, visited);
+	}
+
+	private void renderTrace(Throwable throwable, StringBuilder builder) {
+		Set<Throwable> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+		visited.add(throwable);
+
+		builder.append(throwable).append(LINE_SEPARATOR);
+		StackTraceElement[] trace = throwable.getStackTrace();
+		renderFrames(trace, trace.length, builder, "");
+
+		for (Throwable s : throwable.getSuppressed())
+			renderEnclosed(s, trace, "Suppressed: ", "\t", visited, builder);
+
+		Throwable cause = throwable.getCause();
+		if (cause != null)
+			renderEnclosed(cause, trace, "Caused by: ", "", visited, builder);
+	}
+
+	private void renderEnclosed(Throwable throwable, StackTraceElement[] enclosingTrace, String caption, String prefix, Set<Throwable> visited, StringBuilder builder) {
+		if (!visited.add(throwable)) {
+			builder.append(prefix).append(caption).append("[CIRCULAR REFERENCE: ").append(throwable).append(']').append(LINE_SEPARATOR);
+			return;
+		}
+
+		StackTraceElement[] trace = throwable.getStackTrace();
+		int m = trace.length - 1, n = enclosingTrace.length - 1;
+		while (m >= 0 && n >= 0 && trace[m].equals(enclosingTrace[n])) {
+			m--;
+			n--;
+		}
+		int common = trace.length - 1 - m;
+
+		builder.append(prefix).append(caption).append(throwable).append(LINE_SEPARATOR);
+		renderFrames(trace, m + 1, builder, prefix);
+		if (common != 0)
+			builder.append(prefix).append("\t... ").append(common).append(" more").append(LINE_SEPARATOR);
+
+		for (Throwable s : throwable.getSuppressed())
+			renderEnclosed(s, trace, "Suppressed: ", prefix + "\t", visited, builder);
+
+		Throwable cause = throwable.getCause();
+		if (cause != null)
+			renderEnclosed(cause, trace, "Caused by: ", prefix, visited, builder);
+	}
+
+	private void renderFrames(StackTraceElement[] trace, int count, StringBuilder builder, String prefix) {
+		int limit = Math.min(count, this.maxDepth);
+		int collapsed = 0;
+
+		for (int i = 0; i < limit; i++) {
+			StackTraceElement frame = trace[i];
+			if (isCollapsed(frame)) {
+				collapsed++;
+				continue;
+			}
+
+			if (collapsed != 0) {
+				builder.append(prefix).append("\t... ").append(collapsed).append(" collapsed").append(LINE_SEPARATOR);
+				collapsed = 0;
+			}
+			builder.append(prefix).append("\tat ").append(frame).append(LINE_SEPARATOR);
+		}
+
+		if (collapsed != 0)
+			builder.append(prefix).append("\t... ").append(collapsed).append(" collapsed").append(LINE_SEPARATOR);
+		if (limit < count)
+			builder.append(prefix).append("\t... ").append(count - limit).append(" truncated").append(LINE_SEPARATOR);
+	}
+
+	private boolean isCollapsed(StackTraceElement frame) {
+		if (this.collapsedPrefixes.length == 0)
+			return false;
+
+		String className = frame.getClassName();
+		for (String prefix : this.collapsedPrefixes) {
+			if (className.startsWith(prefix))
+				return true;
+		}
+		return false;
+	}
+
+	private static final class IdentityEntry {
+		private final WeakReference<Throwable> throwable, cause;
+		private final int suppressed;
+		private final String text;
+
+		// The cause and suppressed throwables can be added after the throwable was rendered.
+		private IdentityEntry(Throwable throwable, String text) {
+			this.throwable = new WeakReference<>(throwable);
+			Throwable cause = throwable.getCause();
+			this.cause = cause == null ? null : new WeakReference<>(cause);
+			this.suppressed = throwable.getSuppressed().length;
+			this.text = text;
+		}
+
+		private boolean matches(Throwable throwable) {
+			if (this.throwable.get() != throwable)
+				return false;
+			Throwable cause = throwable.getCause();
+			if (cause == null ? this.cause != null : this.cause == null || this.cause.get() != cause)
+				return false;
+			return throwable.getSuppressed().length == this.suppressed;
+		}
+	}
+
+	private static final class ContentEntry {
+		private final int hash;
+		private final Object[] signature;
+		private final String text;
+
+		private ContentEntry(int hash, Object[] signature, String text) {
+			this.hash = hash;
+			this.signature = signature;
+			this.text = text;
+		}
+	}
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.smoofyuniverse.logger.metrics;
+
+/**
+ * The metrics of a {@link net.smoofyuniverse.logger.appender.log.MeteredAppender} at a point in time.
+ * Latencies are in nanoseconds.
+ */
+public final class AppenderSnapshot {
+	private final String name;
+	private final long accepted, failed, filtered, dropped;
+	private final LatencyHistogram.Snapshot latency;
+
+	public AppenderSnapshot(String name, long accepted, long failed, long filtered, long dropped, LatencyHistogram.Snapshot latency) {
+		if (name == null)
+			throw new IllegalArgumentException("name");
+		if (latency == null)
+			throw new IllegalArgumentException("latency");
+
+		this.name = name;
+		this.accepted = accepted;
+		this.failed = failed;
+		this.filtered = filtered;
+		this.dropped = dropped;
+		this.latency = latency;
+	}
+
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Gets the number of messages accepted by the appender without exception, excluding filtered messages.
+	 *
+	 * @return The number of messages.
+	 */
+	public long getAccepted() {
+		return this.accepted;
+	}
+
+	/**
+	 * Gets the number of messages for which the appender, or an asynchronous delegate, threw an exception.
+	 *
+	 * @return The number of messages.
+	 */
+	public long getFailed() {
+		return this.failed;
+	}
+
+	/**
+	 * Gets the number of messages denied by a filtering delegate.
+	 *
+	 * @return The number of messages.
+	 */
+	public long getFiltered() {
+		return this.filtered;
+	}
+
+	/**
+	 * Gets the number of messages dropped by an asynchronous delegate.
+	 *
+	 * @return The number of messages.
+	 */
+	public long getDropped() {
+		return this.dropped;
+	}
+
+	public double getMeanLatency() {
+		return this.latency.getMean();
+	}
+
+	public long getMedianLatency() {
+		return this.latency.getValueAtPercentile(50);
+	}
+
+	public long getP99Latency() {
+		return this.latency.getValueAtPercentile(99);
+	}
+
+	public long getP999Latency() {
+		return this.latency.getValueAtPercentile(99.9);
+	}
+
+	public long getMaxLatency() {
+		return this.latency.getMax();
+	}
+
+	@Override
+	public String toString() {
+		return this.name + "{accepted=" + this.accepted + ", failed=" + this.failed + ", filtered=" + this.filtered + ", dropped=" + this.dropped
+				+ ", mean=" + (long) getMeanLatency() + "ns, p50=" + getMedianLatency() + "ns, p99=" + getP99Latency() + "ns, max=" + getMaxLatency() + "ns}";
+	}
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.smoofyuniverse.logger.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A concurrent histogram of durations in nanoseconds with log-linear buckets.
+ * <p>
+ * Each power of two is split into 8 linear sub-buckets, so that recorded values are known with a relative error below 12.5%
+ * over the whole range of positive longs, with a fixed memory footprint.
+ * Recording a value is lock-free and does not allocate.
+ */
+public final class LatencyHistogram {
+	private static final int SUB_BITS = 3, SUB_COUNT = 1 << SUB_BITS;
+	private static final int BUCKET_COUNT = (64 - SUB_BITS + 1) * SUB_COUNT;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+	private final LongAdder sum = new LongAdder();
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Records a duration.
+	 * Negative durations are recorded as 0.
+	 *
+	 * @param nanos The duration in nanoseconds.
+	 */
+	public void record(long nanos) {
+		if (nanos < 0)
+			nanos = 0;
+
+		this.counts.incrementAndGet(index(nanos));
+		this.sum.add(nanos);
+
+		long m = this.max.get();
+		while (nanos > m && !this.max.compareAndSet(m, nanos))
+			m = this.max.get();
+	}
+
+	/**
+	 * Takes a snapshot of the recorded durations.
+	 * Durations recorded concurrently may be partially included.
+	 *
+	 * @return The snapshot.
+	 */
+	public Snapshot snapshot() {
+		long[] counts = new long[BUCKET_COUNT];
+		long count = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			counts[i] = this.counts.get(i);
+			count += counts[i];
+		}
+		return new Snapshot(counts, count, this.sum.sum(), this.max.get());
+	}
+
+	private static int index(long value) {
+		if (value < SUB_COUNT)
+			return (int) value;
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		return ((exponent - SUB_BITS + 1) << SUB_BITS) + (int) ((value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1));
+	}
+
+	// The highest value recorded in a bucket.
+	private static long highestValue(int index) {
+		if (index < SUB_COUNT)
+			return index;
+		int exponent = (index >> SUB_BITS) + SUB_BITS - 1;
+		long lowest = (long) (SUB_COUNT + (index & (SUB_COUNT - 1))) << (exponent - SUB_BITS);
+		return lowest + (1L << (exponent - SUB_BITS)) - 1;
+	}
+
+	/**
+	 * An immutable snapshot of a {@link LatencyHistogram}.
+	 */
+	public static final class Snapshot {
+		private final long[] counts;
+		private final long count, sum, max;
+
+		private Snapshot(long[] counts, long count, long sum, long max) {
+			this.counts = counts;
+			this.count = count;
+			this.sum = sum;
+			this.max = max;
+		}
+
+		public long getCount() {
+			return this.count;
+		}
+
+		public long getMax() {
+			return this.max;
+		}
+
+		public double getMean() {
+			return this.count == 0 ? 0 : (double) this.sum / this.count;
+		}
+
+		/**
+		 * Gets an upper bound of the given percentile.
+		 *
+		 * @param percentile The percentile, between 0 and 100.
+		 * @return The duration in nanoseconds.
+		 */
+		public long getValueAtPercentile(double percentile) {
+			if (!(percentile >= 0 && percentile <= 100))
+				throw new IllegalArgumentException("percentile");
+			if (this.count == 0)
+				return 0;
+
+			long rank = Math.max(1, (long) Math.ceil(percentile / 100 * this.count));
+			long seen = 0;
+			for (int i = 0; i < this.counts.length; i++) {
+				seen += this.counts[i];
+				if (seen >= rank)
+					return Math.min(highestValue(i), this.max);
+			}
+			return this.max;
+		}
+	}
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.smoofyuniverse.logger.metrics;
+
+import net.smoofyuniverse.logger.appender.log.AsyncAppender;
+import net.smoofyuniverse.logger.appender.log.FilteredAppender;
+import net.smoofyuniverse.logger.appender.log.LogAppender;
+import net.smoofyuniverse.logger.appender.log.MeteredAppender;
+import net.smoofyuniverse.logger.appender.log.ParentLogAppender;
+import net.smoofyuniverse.logger.appender.log.TransformedAppender;
+import net.smoofyuniverse.logger.core.LogLevel;
+import net.smoofyuniverse.logger.core.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The metrics of a {@link LoggerFactory}: message counts per level and snapshots of every {@link MeteredAppender}
+ * found in its appender tree. Can be registered as a platform MBean.
+ */
+public class LoggingMetrics implements LoggingMetricsMXBean {
+	public final LoggerFactory factory;
+	private ObjectName objectName;
+
+	public LoggingMetrics(LoggerFactory factory) {
+		if (factory == null)
+			throw new IllegalArgumentException("factory");
+		this.factory = factory;
+	}
+
+	@Override
+	public Map<String, Long> getMessageCounts() {
+		Map<String, Long> counts = new LinkedHashMap<>();
+		for (LogLevel level : LogLevel.values())
+			counts.put(level.name(), this.factory.getMessageCount(level));
+		return counts;
+	}
+
+	@Override
+	public List<AppenderSnapshot> getAppenders() {
+		List<AppenderSnapshot> list = new ArrayList<>();
+		collect(this.factory.getAppender(), list, Collections.newSetFromMap(new IdentityHashMap<>()));
+		return list;
+	}
+
+	// Walks the appender tree through the decorators of this library.
+	private static void collect(LogAppender appender, List<AppenderSnapshot> list, Set<LogAppender> visited) {
+		if (appender == null || !visited.add(appender))
+			return;
+
+		if (appender instanceof MeteredAppender) {
+			list.add(((MeteredAppender) appender).snapshot());
+			collect(((MeteredAppender) appender).delegate, list, visited);
+		} else if (appender instanceof ParentLogAppender) {
+			for (LogAppender child : ((ParentLogAppender) appender).children)
+				collect(child, list, visited);
+		} else if (appender instanceof FilteredAppender) {
+			collect(((FilteredAppender) appender).delegate, list, visited);
+		} else if (appender instanceof TransformedAppender) {
+			collect(((TransformedAppender) appender).delegate, list, visited);
+		} else if (appender instanceof AsyncAppender) {
+			collect(((AsyncAppender) appender).delegate, list, visited);
+		}
+	}
+
+	/**
+	 * Registers these metrics to the platform MBean server.
+	 *
+	 * @param name The name of the MBean, used to distinguish factories.
+	 * @throws JMException if the registration fails.
+	 */
+	public synchronized void register(String name) throws JMException {
+		if (name == null)
+			throw new IllegalArgumentException("name");
+		if (this.objectName != null)
+			throw new IllegalStateException("Already registered");
+
+		ObjectName objectName = new ObjectName("net.smoofyuniverse.logger:type=LoggingMetrics,name=" + ObjectName.quote(name));
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+		this.objectName = objectName;
+	}
+
+	/**
+	 * Unregisters these metrics from the platform MBean server.
+	 *
+	 * @throws JMException if the unregistration fails.
+	 */
+	public synchronized void unregister() throws JMException {
+		if (this.objectName == null)
+			return;
+
+		ManagementFactory.getPlatformMBeanServer().unregisterMBean(this.objectName);
+		this.objectName = null;
+	}
+}
@@ -50,4 +50,17 @@ public interface LogTransformer extends UnaryOperator<LogMessage> {
 	 */
 	@Override
 	LogMessage apply(LogMessage message);
+
+	/**
+	 * Creates a transformer applying a string operator to text and stack trace.
+	 * The operator is applied lazily and composed with adjacent operators, see {@link LogMessage#transform(UnaryOperator)}.
+	 *
+	 * @param operator The operator.
+	 * @return The transformer.
+	 */
+	static LogTransformer text(UnaryOperator<String> operator) {
+		if (operator == null)
+			throw new IllegalArgumentException("operator");
+		return message -> message.transform(operator);
+	}
 }
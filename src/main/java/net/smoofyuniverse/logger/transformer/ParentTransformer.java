@@ -30,6 +30,7 @@ import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * A {@link LogTransformer} chaining child transformers.
+ * Adjacent text transformations are composed and only applied when the text is read.
  */
 public class ParentTransformer implements LogTransformer {
 	/**
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.smoofyuniverse.logger.appender.log;
+
+import net.smoofyuniverse.logger.appender.log.AsyncAppender.OverflowPolicy;
+import net.smoofyuniverse.logger.core.LogLevel;
+import net.smoofyuniverse.logger.core.LogMessage;
+import net.smoofyuniverse.logger.core.Logger;
+import net.smoofyuniverse.logger.core.LoggerFactory;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+public class AsyncAppenderTest {
+	private final Logger logger = new LoggerFactory().provideLogger("test");
+	private final List<String> texts = new ArrayList<>();
+	private final CountDownLatch entered = new CountDownLatch(1), gate = new CountDownLatch(1);
+	private volatile boolean closed;
+	private AsyncAppender appender;
+
+	// Blocks the worker on the first message until the gate is opened, so that the buffer can be filled.
+	private final LogAppender delegate = new LogAppender() {
+		@Override
+		public void accept(LogMessage message) {
+			entered.countDown();
+			try {
+				gate.await();
+			} catch (InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+			if (message.getText().equals("fail"))
+				throw new IllegalStateException();
+			synchronized (texts) {
+				texts.add(message.getText());
+			}
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+		}
+	};
+
+	@After
+	public void close() {
+		this.gate.countDown();
+		if (this.appender != null)
+			this.appender.close();
+	}
+
+	private void log(LogLevel level, String text) {
+		this.appender.accept(new LogMessage(this.logger, level, null, text));
+	}
+
+	// Fills the buffer of capacity 2 while the worker is blocked on the first message.
+	private void fill(OverflowPolicy policy, int sampleRate) throws InterruptedException {
+		this.appender = AsyncAppender.builder().delegate(this.delegate).capacity(2).policy(policy).sampleRate(sampleRate).build();
+		log(LogLevel.INFO, "0");
+		this.entered.await();
+		log(LogLevel.INFO, "1");
+		log(LogLevel.INFO, "2");
+		assertEquals(2, this.appender.getPendingCount());
+	}
+
+	@Test
+	public void dropNewest() throws InterruptedException {
+		fill(OverflowPolicy.DROP_NEWEST, 1);
+		log(LogLevel.ERROR, "3");
+		assertEquals(1, this.appender.getDroppedCount());
+
+		this.gate.countDown();
+		this.appender.flush();
+		assertEquals("[0, 1, 2]", this.texts.toString());
+	}
+
+	@Test
+	public void dropBelowLevel() throws InterruptedException {
+		fill(OverflowPolicy.DROP_BELOW_LEVEL, 1);
+		log(LogLevel.INFO, "3");
+		assertEquals(1, this.appender.getDroppedCount());
+
+		Thread producer = new Thread(() -> log(LogLevel.WARN, "4"));
+		producer.start();
+		awaitWaiting(producer);
+
+		this.gate.countDown();
+		producer.join();
+		this.appender.flush();
+		assertEquals(1, this.appender.getDroppedCount());
+		assertEquals("[0, 1, 2, 4]", this.texts.toString());
+	}
+
+	@Test
+	public void sample() throws InterruptedException {
+		fill(OverflowPolicy.SAMPLE, 2);
+
+		// The first overflowing message waits, the next one is dropped.
+		Thread producer = new Thread(() -> log(LogLevel.INFO, "3"));
+		producer.start();
+		awaitWaiting(producer);
+		log(LogLevel.INFO, "4");
+		assertEquals(1, this.appender.getDroppedCount());
+
+		this.gate.countDown();
+		producer.join();
+		this.appender.flush();
+		assertEquals("[0, 1, 2, 3]", this.texts.toString());
+	}
+
+	@Test
+	public void closeDrainsBuffer() {
+		this.gate.countDown();
+		this.appender = AsyncAppender.builder().delegate(this.delegate).capacity(8).build();
+		for (int i = 0; i < 100; i++)
+			log(LogLevel.INFO, Integer.toString(i));
+		this.appender.close();
+
+		assertEquals(100, this.texts.size());
+		assertEquals("99", this.texts.get(99));
+		assertTrue(this.closed);
+
+		log(LogLevel.INFO, "late");
+		assertEquals(1, this.appender.getDroppedCount());
+		assertEquals(100, this.texts.size());
+	}
+
+	@Test
+	public void workerSurvivesFailures() {
+		this.gate.countDown();
+		this.appender = new AsyncAppender(this.delegate);
+		log(LogLevel.INFO, "fail");
+		log(LogLevel.INFO, "a");
+		this.appender.flush();
+
+		assertEquals(1, this.appender.getFailedCount());
+		assertEquals("[a]", this.texts.toString());
+	}
+
+	private static void awaitWaiting(Thread thread) throws InterruptedException {
+		while (thread.getState() != Thread.State.WAITING) {
+			assertNotSame(Thread.State.TERMINATED, thread.getState());
+			Thread.sleep(1);
+		}
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.smoofyuniverse.logger.appender.log;
+
+import net.smoofyuniverse.logger.core.LogLevel;
+import net.smoofyuniverse.logger.core.LogMessage;
+import net.smoofyuniverse.logger.core.Logger;
+import net.smoofyuniverse.logger.core.LoggerFactory;
+import net.smoofyuniverse.logger.filter.LevelFilter;
+import net.smoofyuniverse.logger.metrics.AppenderSnapshot;
+import net.smoofyuniverse.logger.transformer.LogTransformer;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class MeteredAppenderTest {
+	private final Logger logger = new LoggerFactory().provideLogger("test");
+
+	private static final LogAppender FAILING = new LogAppender() {
+		@Override
+		public void accept(LogMessage message) {
+			if (message.getText().equals("fail"))
+				throw new IllegalStateException();
+		}
+
+		@Override
+		public void close() {}
+	};
+
+	private void log(LogAppender appender, LogLevel level, String text) {
+		appender.accept(new LogMessage(this.logger, level, null, text));
+	}
+
+	@Test
+	public void countsAcceptedAndFailed() {
+		MeteredAppender appender = new MeteredAppender("test", FAILING);
+		log(appender, LogLevel.INFO, "a");
+		log(appender, LogLevel.INFO, "b");
+		try {
+			log(appender, LogLevel.INFO, "fail");
+			fail("thrown");
+		} catch (IllegalStateException ignored) {
+		}
+
+		AppenderSnapshot snapshot = appender.snapshot();
+		assertEquals(2, snapshot.getAccepted());
+		assertEquals(1, snapshot.getFailed());
+		assertEquals(0, snapshot.getFiltered());
+	}
+
+	@Test
+	public void filteredAreNotAccepted() {
+		MeteredAppender appender = new MeteredAppender("test", new FilteredAppender(FAILING, LevelFilter.minimum(LogLevel.INFO, -1)));
+		log(appender, LogLevel.DEBUG, "a");
+		log(appender, LogLevel.INFO, "b");
+
+		AppenderSnapshot snapshot = appender.snapshot();
+		assertEquals(1, snapshot.getAccepted());
+		assertEquals(1, snapshot.getFiltered());
+	}
+
+	@Test
+	public void filteredThroughWrappers() {
+		LogAppender filtered = new FilteredAppender(new FilteredAppender(FAILING, LevelFilter.minimum(LogLevel.WARN, -1)), LevelFilter.minimum(LogLevel.INFO, -1));
+		MeteredAppender appender = new MeteredAppender("test", new TransformedAppender(filtered, LogTransformer.text(String::trim)));
+		log(appender, LogLevel.DEBUG, "a");
+		log(appender, LogLevel.INFO, "b");
+		log(appender, LogLevel.ERROR, " c ");
+
+		AppenderSnapshot snapshot = appender.snapshot();
+		assertEquals(1, snapshot.getAccepted());
+		assertEquals(2, snapshot.getFiltered());
+	}
+}
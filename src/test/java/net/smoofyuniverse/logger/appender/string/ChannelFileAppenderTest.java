@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.smoofyuniverse.logger.appender.string;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.Assert.assertEquals;
+
+public class ChannelFileAppenderTest {
+	private Path file;
+
+	@Before
+	public void setUp() throws IOException {
+		this.file = Files.createTempFile("log", ".log");
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(this.file);
+	}
+
+	private String read() throws IOException {
+		return new String(Files.readAllBytes(this.file), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void encodesAcrossBuffers() throws IOException {
+		ChannelFileAppender appender = new ChannelFileAppender(this.file, StandardCharsets.UTF_8, FlushPolicy.NEVER, 16);
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			String line = "ligne " + i + " \u00e9\u20ac\ud83d\ude00\n";
+			if (i % 2 == 0)
+				appender.accept(line);
+			else
+				appender.accept(line.toCharArray(), 0, line.length());
+			expected.append(line);
+		}
+		appender.close();
+		assertEquals(expected.toString(), read());
+	}
+
+	@Test
+	public void bufferedUntilFlush() throws IOException {
+		ChannelFileAppender appender = new ChannelFileAppender(this.file, StandardCharsets.UTF_8, FlushPolicy.NEVER, 1024);
+		appender.accept("a\n");
+		assertEquals("", read());
+		appender.flush();
+		assertEquals("a\n", read());
+		appender.close();
+	}
+
+	@Test
+	public void truncatesByDefault() throws IOException {
+		Files.write(this.file, "old\n".getBytes(StandardCharsets.UTF_8));
+		ChannelFileAppender appender = new ChannelFileAppender(this.file);
+		appender.accept("new\n");
+		assertEquals("new\n", read());
+		appender.close();
+	}
+
+	@Test
+	public void appendOption() throws IOException {
+		Files.write(this.file, "old\n".getBytes(StandardCharsets.UTF_8));
+		ChannelFileAppender appender = new ChannelFileAppender(this.file, StandardOpenOption.APPEND);
+		appender.accept("new\n");
+		appender.close();
+		// The channel is reopened after close.
+		appender.accept("again\n");
+		appender.close();
+		assertEquals("old\nnew\nagain\n", read());
+	}
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.smoofyuniverse.logger.appender.string;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+
+public class DatedRollingFileAppenderTest {
+	private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-10-18T12:00:00Z"), ZoneOffset.UTC);
+
+	private Path directory;
+	private ExecutorService executor;
+
+	@Before
+	public void setUp() throws IOException {
+		this.directory = Files.createTempDirectory("logs");
+		this.executor = Executors.newSingleThreadExecutor();
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		this.executor.shutdownNow();
+		try (Stream<Path> st = Files.walk(this.directory)) {
+			st.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+		}
+	}
+
+	private DatedRollingFileAppender.Builder builder() {
+		return DatedRollingFileAppender.builder().directory(this.directory).clock(CLOCK).executor(this.executor);
+	}
+
+	private void awaitMaintenance() throws InterruptedException {
+		this.executor.shutdown();
+		assertTrue(this.executor.awaitTermination(10, TimeUnit.SECONDS));
+	}
+
+	private static byte[] gzip(String content) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (OutputStream out = new GZIPOutputStream(bytes)) {
+			out.write(content.getBytes(StandardCharsets.UTF_8));
+		}
+		return bytes.toByteArray();
+	}
+
+	private static void writeGzip(Path file, String content) throws IOException {
+		Files.write(file, gzip(content));
+	}
+
+	private static String readGzip(Path file) throws IOException {
+		try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+			byte[] buffer = new byte[1024];
+			StringBuilder builder = new StringBuilder();
+			int n;
+			while ((n = in.read(buffer)) != -1)
+				builder.append(new String(buffer, 0, n, StandardCharsets.UTF_8));
+			return builder.toString();
+		}
+	}
+
+	@Test
+	public void compressedFileTakesIndex() throws Exception {
+		writeGzip(this.directory.resolve("2026-10-18.log.gz"), "old");
+
+		DatedRollingFileAppender appender = builder().compress(true).build();
+		appender.accept("new");
+		appender.close();
+		awaitMaintenance();
+
+		assertEquals(this.directory.resolve("2026-10-18.1.log"), appender.getFile());
+		assertEquals("new", new String(Files.readAllBytes(appender.getFile()), StandardCharsets.UTF_8));
+		assertEquals("old", readGzip(this.directory.resolve("2026-10-18.log.gz")));
+	}
+
+	@Test
+	public void compressesLeftoverFiles() throws Exception {
+		Path leftover = this.directory.resolve("2026-10-17.log");
+		Files.write(leftover, "leftover".getBytes(StandardCharsets.UTF_8));
+
+		DatedRollingFileAppender appender = builder().compress(true).build();
+		appender.accept("new");
+		appender.close();
+		awaitMaintenance();
+
+		assertFalse(Files.exists(leftover));
+		assertEquals("leftover", readGzip(this.directory.resolve("2026-10-17.log.gz")));
+		assertTrue(Files.exists(appender.getFile()));
+	}
+
+	@Test
+	public void compressNeverReplaces() throws Exception {
+		Path file = this.directory.resolve("2026-10-17.log");
+		Files.write(file, "new".getBytes(StandardCharsets.UTF_8));
+		writeGzip(this.directory.resolve("2026-10-17.log.gz"), "old");
+
+		try {
+			DatedRollingFileAppender.compress(file);
+			fail("compressed");
+		} catch (FileAlreadyExistsException ignored) {
+		}
+
+		assertTrue(Files.exists(file));
+		assertEquals("old", readGzip(this.directory.resolve("2026-10-17.log.gz")));
+	}
+
+	@Test
+	public void gzipNeverAppends() throws Exception {
+		// A member left unterminated by a crash.
+		Path crashed = this.directory.resolve("2026-10-18.log.gz");
+		byte[] bytes = gzip("crashed");
+		Files.write(crashed, Arrays.copyOf(bytes, bytes.length - 8));
+
+		DatedRollingFileAppender appender = builder().gzip(true).build();
+		appender.accept("first");
+		appender.close();
+		Path first = appender.getFile();
+		appender.accept("second");
+		appender.close();
+		Path second = appender.getFile();
+
+		assertEquals(this.directory.resolve("2026-10-18.1.log.gz"), first);
+		assertEquals(this.directory.resolve("2026-10-18.2.log.gz"), second);
+		assertEquals("first", readGzip(first));
+		assertEquals("second", readGzip(second));
+	}
+
+	@Test
+	public void gzipFlushesBySize() {
+		assertSame(FlushPolicy.ALWAYS, builder().build().flushPolicy);
+		assertNotSame(FlushPolicy.ALWAYS, builder().gzip(true).build().flushPolicy);
+		assertSame(FlushPolicy.NEVER, builder().gzip(true).flushPolicy(FlushPolicy.NEVER).build().flushPolicy);
+	}
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.smoofyuniverse.logger.appender.string;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+public class FlushPolicyTest {
+	private Path file;
+
+	@Before
+	public void setUp() throws IOException {
+		this.file = Files.createTempFile("log", ".log");
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(this.file);
+	}
+
+	private String read() throws IOException {
+		return new String(Files.readAllBytes(this.file), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void size() {
+		FlushPolicy policy = FlushPolicy.size(10);
+		assertFalse(policy.shouldFlush(4));
+		assertFalse(policy.shouldFlush(5));
+		assertTrue(policy.shouldFlush(1));
+		assertFalse(policy.shouldFlush(9));
+		assertTrue(policy.shouldFlush(20));
+	}
+
+	@Test
+	public void always() throws IOException {
+		FileAppender appender = new FileAppender(this.file, StandardCharsets.UTF_8, FlushPolicy.ALWAYS);
+		appender.accept("a\n");
+		assertEquals("a\n", read());
+		appender.close();
+	}
+
+	@Test
+	public void never() throws IOException {
+		FileAppender appender = new FileAppender(this.file, StandardCharsets.UTF_8, FlushPolicy.NEVER);
+		appender.accept("a\n");
+		assertEquals("", read());
+		appender.flush();
+		assertEquals("a\n", read());
+		appender.close();
+	}
+
+	@Test
+	public void interval() throws IOException, InterruptedException {
+		FileAppender appender = new FileAppender(this.file, StandardCharsets.UTF_8, FlushPolicy.interval(5));
+		appender.accept("a\n");
+		for (int i = 0; i < 1000 && read().isEmpty(); i++)
+			Thread.sleep(5);
+		assertEquals("a\n", read());
+		appender.close();
+	}
+
+	@Test
+	public void intervalRacesWithAppends() throws IOException {
+		FileAppender appender = new FileAppender(this.file, StandardCharsets.UTF_8, FlushPolicy.interval(1));
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 100_000; i++) {
+			String line = "message " + i + "\n";
+			appender.accept(line);
+			expected.append(line);
+		}
+		appender.close();
+		assertEquals(expected.toString(), read());
+	}
+}
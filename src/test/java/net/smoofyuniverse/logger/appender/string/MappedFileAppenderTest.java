@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.smoofyuniverse.logger.appender.string;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.Assert.assertEquals;
+
+public class MappedFileAppenderTest {
+	private Path file;
+
+	@Before
+	public void setUp() throws IOException {
+		this.file = Files.createTempFile("log", ".log");
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(this.file);
+	}
+
+	private String read() throws IOException {
+		return new String(Files.readAllBytes(this.file), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void reopenAfterCrash() throws IOException {
+		MappedFileAppender crashed = new MappedFileAppender(this.file, StandardCharsets.UTF_8, 64, StandardOpenOption.CREATE);
+		crashed.accept("first\n");
+		// The appender is never closed, the file keeps the padding of its segment.
+		assertEquals(64, Files.size(this.file));
+
+		MappedFileAppender appender = new MappedFileAppender(this.file, StandardCharsets.UTF_8, 64, StandardOpenOption.CREATE);
+		appender.accept("second\n");
+		appender.close();
+
+		assertEquals("first\nsecond\n", read());
+	}
+
+	@Test
+	public void spansSegments() throws IOException {
+		MappedFileAppender appender = new MappedFileAppender(this.file, StandardCharsets.UTF_8, 16);
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			String line = "line " + i + " \u00e9\u20ac\n";
+			appender.accept(line);
+			expected.append(line);
+		}
+		byte[] bytes = expected.toString().getBytes(StandardCharsets.UTF_8);
+		assertEquals(bytes.length, appender.getLength());
+		appender.close();
+
+		assertEquals(bytes.length, Files.size(this.file));
+		assertEquals(expected.toString(), read());
+	}
+
+	@Test
+	public void truncatesByDefault() throws IOException {
+		Files.write(this.file, "old content\n".getBytes(StandardCharsets.UTF_8));
+		MappedFileAppender appender = new MappedFileAppender(this.file, StandardCharsets.UTF_8, 64);
+		appender.accept("new\n");
+		appender.close();
+		assertEquals("new\n", read());
+	}
+
+	@Test
+	public void reopenAfterCrashInLaterSegment() throws IOException {
+		MappedFileAppender crashed = new MappedFileAppender(this.file, StandardCharsets.UTF_8, 16, StandardOpenOption.CREATE);
+		// Fills the first segment exactly, the next message maps a second segment.
+		crashed.accept("0123456789abcde\n");
+		crashed.accept("x\n");
+		assertEquals(32, Files.size(this.file));
+
+		MappedFileAppender appender = new MappedFileAppender(this.file, StandardCharsets.UTF_8, 16, StandardOpenOption.CREATE);
+		appender.accept("second\n");
+		appender.close();
+
+		assertEquals("0123456789abcde\nx\nsecond\n", read());
+	}
+
+	@Test
+	public void reopenAfterCloseAppends() throws IOException {
+		MappedFileAppender appender = new MappedFileAppender(this.file, StandardCharsets.UTF_8, 64, StandardOpenOption.CREATE);
+		appender.accept("first\n");
+		appender.close();
+		appender.accept("second\n");
+		appender.close();
+		assertEquals("first\nsecond\n", read());
+	}
+}
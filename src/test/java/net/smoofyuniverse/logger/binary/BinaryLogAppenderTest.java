@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.smoofyuniverse.logger.binary;
+
+import net.smoofyuniverse.logger.core.LogLevel;
+import net.smoofyuniverse.logger.core.LogMessage;
+import net.smoofyuniverse.logger.core.Logger;
+import net.smoofyuniverse.logger.core.LoggerFactory;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+public class BinaryLogAppenderTest {
+
+	@Test
+	public void throwingSupplierLeavesStreamReadable() throws IOException {
+		Path file = Files.createTempFile("log", ".bin");
+		try {
+			Logger logger = new LoggerFactory().provideLogger("test");
+			BinaryLogAppender appender = new BinaryLogAppender(file);
+
+			try {
+				appender.accept(new LogMessage(logger, LogLevel.INFO, 1_000, Thread.currentThread(), null, () -> {
+					throw new IllegalStateException("supplier");
+				}));
+				fail("accepted");
+			} catch (IllegalStateException ignored) {
+			}
+			appender.accept(new LogMessage(logger, LogLevel.WARN, 2_000, Thread.currentThread(), null, "text"));
+			appender.close();
+
+			try (InputStream in = Files.newInputStream(file); BinaryLogReader reader = new BinaryLogReader(in)) {
+				LogMessage message = reader.read();
+				assertNotNull(message);
+				assertEquals("test", message.getLogger().getName());
+				assertEquals(LogLevel.WARN, message.getLevel());
+				assertEquals(2_000L, message.getTimestamp());
+				assertEquals(Thread.currentThread().getName(), message.getThread().getName());
+				assertEquals("text", message.getText());
+				assertNull(reader.read());
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+}
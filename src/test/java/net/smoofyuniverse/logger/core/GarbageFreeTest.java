@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.smoofyuniverse.logger.core;
+
+import net.smoofyuniverse.logger.appender.log.LogAppender;
+import net.smoofyuniverse.logger.formatter.JsonFormatter;
+import net.smoofyuniverse.logger.formatter.PatternFormatter;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.*;
+
+public class GarbageFreeTest {
+	private final List<LogMessage> messages = new ArrayList<>();
+	private final List<LogMessage> snapshots = new ArrayList<>();
+	private final List<String> texts = new ArrayList<>();
+	private final LoggerFactory factory = new LoggerFactory();
+	private final Logger logger = this.factory.provideLogger("test");
+	private Consumer<LogMessage> action = msg -> {};
+
+	public GarbageFreeTest() {
+		this.factory.setGarbageFree(true);
+		this.factory.setAppender(new LogAppender() {
+			@Override
+			public void accept(LogMessage message) {
+				messages.add(message);
+				snapshots.add(message.snapshot());
+				texts.add(new PatternFormatter("%p %c %m").apply(message));
+				action.accept(message);
+			}
+
+			@Override
+			public void close() {}
+		});
+	}
+
+	@Test
+	public void messageIsReused() {
+		this.logger.info("first");
+		this.logger.warn("second {}", 2);
+
+		assertSame(this.messages.get(0), this.messages.get(1));
+		assertTrue(this.messages.get(0).isReusable());
+		// The message is cleared once the appender returns.
+		assertNull(this.messages.get(0).getLogger());
+		assertEquals("INFO test first", this.texts.get(0));
+		assertEquals("WARN test second 2", this.texts.get(1));
+	}
+
+	@Test
+	public void snapshotOutlivesMessage() {
+		Throwable throwable = new IllegalStateException();
+		this.logger.error("failure {}", "x", throwable);
+
+		LogMessage snapshot = this.snapshots.get(0);
+		assertNotSame(this.messages.get(0), snapshot);
+		assertFalse(snapshot.isReusable());
+		assertSame(this.logger, snapshot.getLogger());
+		assertEquals(LogLevel.ERROR, snapshot.getLevel());
+		assertSame(Thread.currentThread(), snapshot.getThread());
+		assertSame(throwable, snapshot.getThrowable());
+		assertEquals("failure x", snapshot.getText());
+	}
+
+	@Test
+	public void recursiveLogUsesAnotherMessage() {
+		this.action = msg -> {
+			this.action = m -> {};
+			this.logger.info("nested");
+		};
+		this.logger.info("outer");
+
+		assertEquals(2, this.messages.size());
+		assertNotSame(this.messages.get(0), this.messages.get(1));
+		assertEquals("INFO test outer", this.texts.get(0));
+		assertEquals("INFO test nested", this.texts.get(1));
+	}
+
+	@Test
+	public void templateAppendedToJson() {
+		List<String> json = new ArrayList<>();
+		this.action = msg -> json.add(new JsonFormatter().apply(msg));
+		this.logger.info("a {} b", "\"quoted\"");
+		this.logger.info("plain {}", 1);
+
+		assertTrue(json.get(0), json.get(0).contains("\"message\":\"a \\\"quoted\\\" b\""));
+		assertTrue(json.get(1), json.get(1).contains("\"message\":\"plain 1\""));
+	}
+
+	@Test
+	public void normalMessageFieldsAreFinal() {
+		for (Field field : LogMessage.class.getDeclaredFields()) {
+			String name = field.getName();
+			if (name.equals("logger") || name.equals("level") || name.equals("timestamp") || name.equals("thread") || name.equals("throwable"))
+				assertTrue(name, Modifier.isFinal(field.getModifiers()) && Modifier.isPrivate(field.getModifiers()));
+		}
+	}
+}
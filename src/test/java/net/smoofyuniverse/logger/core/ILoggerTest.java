@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.smoofyuniverse.logger.core;
+
+import net.smoofyuniverse.logger.appender.log.LogAppender;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ILoggerTest {
+	private final List<String> texts = new ArrayList<>();
+	private final List<Throwable> throwables = new ArrayList<>();
+	private final List<LogFields> fields = new ArrayList<>();
+	private final Logger logger;
+
+	public ILoggerTest() {
+		LoggerFactory factory = new LoggerFactory();
+		factory.setLevel(LogLevel.TRACE);
+		factory.setAppender(new LogAppender() {
+			@Override
+			public void accept(LogMessage message) {
+				texts.add(message.getText());
+				throwables.add(message.getThrowable());
+				fields.add(message.getFields());
+			}
+
+			@Override
+			public void close() {}
+		});
+		this.logger = factory.provideLogger("test");
+	}
+
+	@Test
+	public void nullThrowable() {
+		// A bare null also matches the varargs template overloads, the cast selects the throwable overload.
+		logger.trace("x", (Throwable) null);
+		logger.debug("x", (Throwable) null);
+		logger.info("x", (Throwable) null);
+		logger.warn("x", (Throwable) null);
+		logger.error("x", (Throwable) null);
+		logger.log(LogLevel.INFO, "x", (Throwable) null);
+
+		assertEquals(6, texts.size());
+		for (int i = 0; i < 6; i++) {
+			assertEquals("x", texts.get(i));
+			assertNull(throwables.get(i));
+			assertNull(fields.get(i));
+		}
+	}
+
+	@Test
+	public void nullArgument() {
+		logger.info("x {}", (Object) null);
+		assertEquals("x null", texts.get(0));
+		assertNull(throwables.get(0));
+	}
+
+	@Test
+	public void fields() {
+		LogFields f = new LogFields().add("status", 200);
+		logger.info(f, "x");
+		logger.log(LogLevel.WARN, f, "y");
+
+		assertEquals("x", texts.get(0));
+		assertSame(f, fields.get(0));
+		assertEquals("y", texts.get(1));
+		assertSame(f, fields.get(1));
+	}
+}
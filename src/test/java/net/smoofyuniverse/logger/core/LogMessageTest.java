@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.smoofyuniverse.logger.core;
+
+import net.smoofyuniverse.logger.appender.log.FormattedAppender;
+import net.smoofyuniverse.logger.appender.string.StringAppender;
+import net.smoofyuniverse.logger.formatter.LogFormatter;
+import net.smoofyuniverse.logger.formatter.ThrowableRenderer;
+import org.junit.Test;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class LogMessageTest {
+	private final Logger logger = new LoggerFactory().provideLogger("test");
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void localTimeConstructors() {
+		LocalTime time = LocalTime.of(5, 6, 7, 123456789);
+		assertEquals(time, new LogMessage(logger, LogLevel.INFO, time, Thread.currentThread(), null, "text").getTime());
+		assertEquals(time, new LogMessage(logger, LogLevel.INFO, time, Thread.currentThread(), null, () -> "text").getTime());
+
+		LogMessage message = new LogMessage(logger, LogLevel.INFO, time, Thread.currentThread(), null, "text", "trace");
+		assertEquals(time, message.getTime());
+		assertEquals("trace", message.getStackTrace());
+	}
+
+	@Test
+	public void transformedStackTraceUsesRenderer() {
+		Throwable throwable = new IllegalStateException("failure");
+		ThrowableRenderer renderer = new ThrowableRenderer(1, new String[0], 64);
+		LogMessage message = new LogMessage(logger, LogLevel.INFO, throwable, "text")
+				.transform(String::toUpperCase).transform(s -> s.replace('\t', ' '));
+
+		StringBuilder builder = new StringBuilder();
+		message.appendStackTrace(builder, renderer);
+		assertEquals(renderer.render(throwable).toUpperCase().replace('\t', ' '), builder.toString());
+
+		builder.setLength(0);
+		message.appendStackTrace(builder, ThrowableRenderer.DEFAULT);
+		assertEquals(ThrowableRenderer.DEFAULT.render(throwable).toUpperCase().replace('\t', ' '), builder.toString());
+	}
+
+	@Test
+	public void memoizeOncePerKey() {
+		LogMessage message = new LogMessage(logger, LogLevel.INFO, null, "text");
+		AtomicInteger calls = new AtomicInteger();
+		String first = message.memoize("a", m -> m.getText() + calls.incrementAndGet());
+		assertEquals("text1", first);
+		assertSame(first, message.memoize("a", m -> m.getText() + calls.incrementAndGet()));
+		assertEquals("text2", message.memoize("b", m -> m.getText() + calls.incrementAndGet()));
+
+		for (int i = 0; i < 10; i++)
+			message.memoize(i, m -> Integer.toString(calls.incrementAndGet()));
+		assertEquals(12, calls.get());
+		assertEquals("text1", message.memoize("a", m -> "other"));
+		assertEquals("3", message.memoize(0, m -> "other"));
+	}
+
+	@Test
+	public void snapshotKeepsMemoizedValues() {
+		LogMessage message = new LogMessage(logger, LogLevel.INFO, null, "text");
+		message.memoize("a", m -> "value");
+		assertEquals("value", message.snapshot().memoize("a", m -> "other"));
+	}
+
+	@Test
+	public void sharedFormatterFormatsOnce() {
+		AtomicInteger calls = new AtomicInteger();
+		LogFormatter formatter = (message, builder) -> {
+			calls.incrementAndGet();
+			builder.append(message.getText()).append('\n');
+		};
+		List<String> output = new ArrayList<>();
+		StringAppender stringAppender = new StringAppender() {
+			@Override
+			public void accept(String message) {
+				output.add(message);
+			}
+
+			@Override
+			public void close() {}
+		};
+
+		FormattedAppender first = new FormattedAppender(stringAppender, formatter, null, ThrowableRenderer.DEFAULT, true);
+		FormattedAppender second = new FormattedAppender(stringAppender, formatter, null, ThrowableRenderer.DEFAULT, true);
+		LogMessage message = new LogMessage(logger, LogLevel.INFO, new IllegalStateException(), "text");
+		first.accept(message);
+		second.accept(message);
+
+		assertEquals(1, calls.get());
+		assertEquals(2, output.size());
+		assertEquals(output.get(0), output.get(1));
+		assertEquals("text\n" + ThrowableRenderer.DEFAULT.render(message.getThrowable()), output.get(0));
+	}
+}
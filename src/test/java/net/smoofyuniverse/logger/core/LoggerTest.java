@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.smoofyuniverse.logger.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LoggerTest {
+	private final LoggerFactory factory = new LoggerFactory();
+
+	@Test
+	public void ancestorsAreCreated() {
+		Logger logger = this.factory.provideLogger("com.acme.db");
+		Logger parent = logger.getParent().get();
+		assertEquals("com.acme", parent.getName());
+		assertSame(parent, this.factory.provideLogger("com.acme"));
+		assertTrue(parent.getChildren().contains(logger));
+		assertFalse(this.factory.provideLogger("com").getParent().isPresent());
+	}
+
+	@Test
+	public void inheritsFactoryLevel() {
+		Logger logger = this.factory.provideLogger("com.acme.db");
+		assertEquals(this.factory.getLevel(), logger.getEffectiveLevel());
+
+		this.factory.setLevel(LogLevel.ERROR);
+		assertEquals(LogLevel.ERROR, logger.getEffectiveLevel());
+		assertFalse(logger.isActive(LogLevel.WARN));
+		assertTrue(logger.isActive(LogLevel.ERROR));
+	}
+
+	@Test
+	public void parentLevelChanges() {
+		Logger parent = this.factory.provideLogger("com.acme");
+		Logger child = this.factory.provideLogger("com.acme.db");
+		Logger grandChild = this.factory.provideLogger("com.acme.db.pool");
+		Logger sibling = this.factory.provideLogger("com.acme.web");
+		sibling.setLevel(LogLevel.WARN);
+
+		parent.setLevel(LogLevel.TRACE);
+		assertEquals(LogLevel.TRACE, child.getEffectiveLevel());
+		assertEquals(LogLevel.TRACE, grandChild.getEffectiveLevel());
+		assertEquals(LogLevel.WARN, sibling.getEffectiveLevel());
+		assertTrue(grandChild.isActive(LogLevel.TRACE));
+
+		child.setLevel(LogLevel.ERROR);
+		parent.setLevel(LogLevel.INFO);
+		assertEquals(LogLevel.ERROR, child.getEffectiveLevel());
+		assertEquals(LogLevel.ERROR, grandChild.getEffectiveLevel());
+
+		// Clearing the level of a logger makes it inherit again.
+		child.setLevel(null);
+		assertEquals(LogLevel.INFO, child.getEffectiveLevel());
+		assertEquals(LogLevel.INFO, grandChild.getEffectiveLevel());
+
+		parent.setLevel(null);
+		this.factory.setLevel(LogLevel.WARN);
+		assertEquals(LogLevel.WARN, grandChild.getEffectiveLevel());
+		assertEquals(LogLevel.WARN, sibling.getEffectiveLevel());
+	}
+
+	@Test
+	public void newLoggersInheritCurrentLevel() {
+		this.factory.provideLogger("com.acme").setLevel(LogLevel.TRACE);
+		assertEquals(LogLevel.TRACE, this.factory.provideLogger("com.acme.db.pool").getEffectiveLevel());
+	}
+}
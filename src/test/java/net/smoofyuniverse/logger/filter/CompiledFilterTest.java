@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.smoofyuniverse.logger.filter;
+
+import net.smoofyuniverse.logger.core.LogLevel;
+import net.smoofyuniverse.logger.core.LogMessage;
+import net.smoofyuniverse.logger.core.LoggerFactory;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class CompiledFilterTest {
+	private static final String[] LOGGERS = {"a", "a.b", "b", "secret"};
+
+	private final LoggerFactory factory = new LoggerFactory();
+
+	private void assertSameScores(LogFilter filter) {
+		LogFilter compiled = CompiledFilter.compile(filter);
+		for (String logger : LOGGERS) {
+			for (LogLevel level : LogLevel.values()) {
+				LogMessage message = new LogMessage(this.factory.provideLogger(logger), level, null, "text");
+				assertEquals(logger + " " + level, filter.applyAsInt(message), compiled.applyAsInt(message));
+			}
+		}
+	}
+
+	@Test
+	public void sameScoresAsTree() {
+		assertSameScores(new ParentFilter(
+				LevelFilter.minimum(LogLevel.INFO, -3),
+				(LevelFilter) level -> level == LogLevel.ERROR ? 5 : 0,
+				new ParentFilter(
+						(LoggerFilter) logger -> logger.startsWith("a") ? 2 : -2,
+						(LogFilter) message -> message.getLevel() == LogLevel.WARN ? -4 : 1),
+				(LoggerFilter) logger -> logger.equals("a.b") ? 3 : 0));
+	}
+
+	@Test
+	public void sameVetoesAsTree() {
+		assertSameScores(new ParentFilter(
+				LevelFilter.minimum(LogLevel.DEBUG, LogFilter.VETO),
+				new ParentFilter(
+						(LoggerFilter) logger -> logger.equals("secret") ? LogFilter.VETO : 10,
+						(LogFilter) message -> message.getLevel() == LogLevel.ERROR ? LogFilter.VETO : -1)));
+	}
+
+	@Test
+	public void subclassesAreNotFlattened() {
+		LogFilter filter = new ParentFilter(
+				LevelFilter.minimum(LogLevel.INFO, -1),
+				new FirstChildFilter((LevelFilter) level -> -5, (LevelFilter) level -> 10));
+		assertSameScores(filter);
+
+		FirstChildFilter root = new FirstChildFilter((LevelFilter) level -> -5, (LevelFilter) level -> 10);
+		assertSame(root, CompiledFilter.compile(root));
+	}
+
+	private static final class FirstChildFilter extends ParentFilter {
+
+		private FirstChildFilter(LogFilter... children) {
+			super(children);
+		}
+
+		@Override
+		public int applyAsInt(LogMessage message) {
+			return this.children.iterator().next().applyAsInt(message);
+		}
+	}
+}
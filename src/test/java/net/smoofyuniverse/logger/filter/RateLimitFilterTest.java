@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.smoofyuniverse.logger.filter;
+
+import net.smoofyuniverse.logger.appender.log.LogAppender;
+import net.smoofyuniverse.logger.core.LogLevel;
+import net.smoofyuniverse.logger.core.LogMessage;
+import net.smoofyuniverse.logger.core.Logger;
+import net.smoofyuniverse.logger.core.LoggerFactory;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RateLimitFilterTest {
+	private final Logger logger = new LoggerFactory().provideLogger("test");
+
+	private LogMessage message(String text) {
+		return new LogMessage(logger, LogLevel.INFO, null, text);
+	}
+
+	@Test
+	public void byTemplateDoesNotFormat() {
+		LogMessage message = new LogMessage(logger, LogLevel.INFO, null, () -> {
+			throw new AssertionError("formatted");
+		});
+		assertEquals("test", RateLimitFilter.BY_TEMPLATE.apply(message));
+	}
+
+	@Test
+	public void newKeysShareOverflowBucket() {
+		RateLimitFilter filter = RateLimitFilter.builder().keyFunction(LogMessage::getText)
+				.rate(0.001).capacity(1).maxKeys(2).build();
+
+		assertEquals(0, filter.applyAsInt(message("a")));
+		assertEquals(0, filter.applyAsInt(message("b")));
+		assertEquals(LogFilter.VETO, filter.applyAsInt(message("a")));
+
+		assertEquals(0, filter.applyAsInt(message("c")));
+		assertEquals(LogFilter.VETO, filter.applyAsInt(message("d")));
+	}
+
+	@Test
+	public void reportsAreSpreadOverMessages() throws InterruptedException {
+		List<String> reports = new ArrayList<>();
+		LoggerFactory factory = new LoggerFactory();
+		factory.setAppender(new LogAppender() {
+			@Override
+			public void accept(LogMessage message) {
+				reports.add(message.getText());
+			}
+
+			@Override
+			public void close() {}
+		});
+
+		RateLimitFilter filter = RateLimitFilter.builder().keyFunction(LogMessage::getText)
+				.rate(0.001).capacity(1).reporter(factory.provideLogger("reporter")).reportPeriodMillis(100).build();
+
+		for (int i = 0; i < 100; i++) {
+			filter.applyAsInt(message("key" + i));
+			filter.applyAsInt(message("key" + i));
+		}
+		reports.clear();
+		Thread.sleep(150);
+
+		filter.applyAsInt(message("key0"));
+		assertTrue(reports.size() < 100);
+
+		for (int i = 0; i < 10 && reports.size() < 100; i++)
+			filter.applyAsInt(message("key0"));
+		assertEquals(100, reports.size());
+		assertTrue(reports.contains("Suppressed 1 messages for key: key42"));
+	}
+}
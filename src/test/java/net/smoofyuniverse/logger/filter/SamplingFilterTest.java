@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.smoofyuniverse.logger.filter;
+
+import net.smoofyuniverse.logger.core.LogLevel;
+import net.smoofyuniverse.logger.core.LogMessage;
+import net.smoofyuniverse.logger.core.LoggerFactory;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class SamplingFilterTest {
+	private final LoggerFactory factory = new LoggerFactory();
+
+	private int kept(SamplingFilter filter, String logger, LogLevel level, Throwable throwable, int count) {
+		LogMessage message = new LogMessage(this.factory.provideLogger(logger), level, throwable, "text");
+		int kept = 0;
+		for (int i = 0; i < count; i++) {
+			if (filter.applyAsInt(message) == 0)
+				kept++;
+		}
+		return kept;
+	}
+
+	@Test
+	public void oneIn() {
+		SamplingFilter filter = SamplingFilter.builder().oneIn(LogLevel.DEBUG, 4).build();
+		assertEquals(5, kept(filter, "a", LogLevel.DEBUG, null, 20));
+		assertEquals(20, kept(filter, "a", LogLevel.INFO, null, 20));
+	}
+
+	@Test
+	public void keepThrowables() {
+		SamplingFilter filter = SamplingFilter.builder().oneIn(LogLevel.DEBUG, 4).build();
+		assertEquals(20, kept(filter, "a", LogLevel.DEBUG, new IllegalStateException(), 20));
+
+		filter = SamplingFilter.builder().oneIn(LogLevel.DEBUG, 4).keepThrowables(false).build();
+		assertEquals(5, kept(filter, "a", LogLevel.DEBUG, new IllegalStateException(), 20));
+	}
+
+	@Test
+	public void fractionIsDeterministicWithSeed() {
+		int first = kept(SamplingFilter.builder().fraction(LogLevel.TRACE, 0.5).seed(42).build(), "a", LogLevel.TRACE, null, 1000);
+		int second = kept(SamplingFilter.builder().fraction(LogLevel.TRACE, 0.5).seed(42).build(), "a", LogLevel.TRACE, null, 1000);
+		assertEquals(first, second);
+		assertEquals(0, kept(SamplingFilter.builder().fraction(LogLevel.TRACE, 0).build(), "a", LogLevel.TRACE, null, 100));
+	}
+
+	@Test
+	public void levelsResolvedSeparatelyFromAncestors() {
+		SamplingFilter filter = SamplingFilter.builder()
+				.oneIn(LogLevel.TRACE, 2).oneIn(LogLevel.DEBUG, 2)
+				.oneIn("a", LogLevel.TRACE, 4).oneIn("a", LogLevel.DEBUG, 5)
+				.oneIn("a.b", LogLevel.DEBUG, 10)
+				.build();
+
+		// The child only overrides DEBUG, TRACE comes from its parent rather than from the level rules.
+		assertEquals(5, kept(filter, "a.b", LogLevel.TRACE, null, 20));
+		assertEquals(2, kept(filter, "a.b.c", LogLevel.DEBUG, null, 20));
+		assertEquals(4, kept(filter, "a.c", LogLevel.DEBUG, null, 20));
+		assertEquals(10, kept(filter, "other", LogLevel.TRACE, null, 20));
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.smoofyuniverse.logger.formatter;
+
+import net.smoofyuniverse.logger.appender.log.LogAppender;
+import net.smoofyuniverse.logger.core.LogFields;
+import net.smoofyuniverse.logger.core.LogLevel;
+import net.smoofyuniverse.logger.core.LogMessage;
+import net.smoofyuniverse.logger.core.Logger;
+import net.smoofyuniverse.logger.core.LoggerFactory;
+import net.smoofyuniverse.logger.core.MessageTemplate;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class JsonFormatterTest {
+	// 2021-03-04T05:06:07.123456789Z
+	private static final long TIMESTAMP = 1614834367_123456789L;
+
+	private final Logger logger = new LoggerFactory().provideLogger("test");
+
+	private static String string(CharSequence value) {
+		StringBuilder builder = new StringBuilder();
+		JsonFormatter.appendString(value, builder);
+		return builder.toString();
+	}
+
+	@Test
+	public void escapesStrings() {
+		assertEquals("\"plain\"", string("plain"));
+		assertEquals("\"a\\\"b\\\\c\"", string("a\"b\\c"));
+		assertEquals("\"\\n\\r\\t\\b\\f\"", string("\n\r\t\b\f"));
+		assertEquals("\"\\u0000\\u001f\"", string("\u0000\u001f"));
+		assertEquals("\"\\u2028\\u2029\"", string("\u2028\u2029"));
+		assertEquals("\"\u00e9\u20ac\ud83d\ude00\"", string("\u00e9\u20ac\ud83d\ude00"));
+	}
+
+	@Test
+	public void formatsMessage() {
+		Thread thread = new Thread("worker \"1\"");
+		LogMessage message = new LogMessage(this.logger, LogLevel.WARN, TIMESTAMP, thread, null, "line1\nline2");
+		assertEquals("{\"time\":\"2021-03-04T05:06:07.123456789Z\",\"level\":\"WARN\",\"logger\":\"test\",\"thread\":\"worker \\\"1\\\"\","
+				+ "\"message\":\"line1\\nline2\"}\n", new JsonFormatter().apply(message));
+	}
+
+	@Test
+	public void formatsTemplate() {
+		LogMessage message = new LogMessage(this.logger, LogLevel.INFO, TIMESTAMP, Thread.currentThread(), null,
+				MessageTemplate.of("a {} {}"), new Object[]{"\"quoted\"", 1});
+		String json = new JsonFormatter().apply(message);
+		assertEquals(",\"message\":\"a \\\"quoted\\\" 1\"}\n", json.substring(json.indexOf(",\"message\"")));
+	}
+
+	@Test
+	public void formatsFieldsAndStackTrace() {
+		List<String> json = new ArrayList<>();
+		LoggerFactory factory = new LoggerFactory();
+		factory.setAppender(new LogAppender() {
+			@Override
+			public void accept(LogMessage message) {
+				json.add(new JsonFormatter(new ThrowableRenderer(0, new String[0], 0)).apply(message));
+			}
+
+			@Override
+			public void close() {}
+		});
+
+		LogFields fields = new LogFields().add("s", "a\"b").add("l", 42).add("d", 1.5).add("nan", Double.NaN)
+				.add("b", true).add("o", (Object) null).add("x", (Object) new StringBuilder("sb"));
+		Throwable throwable = new IllegalStateException("failure");
+		throwable.setStackTrace(new StackTraceElement[]{new StackTraceElement("Main", "main", "Main.java", 1)});
+		factory.provideLogger("test").log(LogLevel.ERROR, "text", throwable, fields);
+
+		String line = json.get(0);
+		assertEquals(",\"message\":\"text\",\"fields\":{\"s\":\"a\\\"b\",\"l\":42,\"d\":1.5,\"nan\":\"NaN\",\"b\":true,\"o\":null,\"x\":\"sb\"},"
+				+ "\"stackTrace\":\"java.lang.IllegalStateException: failure"
+				+ escapedLineSeparator() + "\\t... 1 truncated" + escapedLineSeparator() + "\"}\n", line.substring(line.indexOf(",\"message\"")));
+	}
+
+	private static String escapedLineSeparator() {
+		String s = string(System.lineSeparator());
+		return s.substring(1, s.length() - 1);
+	}
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.smoofyuniverse.logger.formatter;
+
+import net.smoofyuniverse.logger.core.LogLevel;
+import net.smoofyuniverse.logger.core.LogMessage;
+import net.smoofyuniverse.logger.core.Logger;
+import net.smoofyuniverse.logger.core.LoggerFactory;
+import org.junit.Test;
+
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.Assert.assertEquals;
+
+public class PatternFormatterTest {
+	// 2021-03-04T05:06:07.123456789Z
+	private static final long TIMESTAMP = 1614834367_123456789L;
+
+	private static LogMessage message() {
+		Logger logger = new LoggerFactory().provideLogger("test");
+		return new LogMessage(logger, LogLevel.INFO, TIMESTAMP, Thread.currentThread(), null, "text");
+	}
+
+	private static void assertTime(String pattern) {
+		LogMessage message = message();
+		String expected = DateTimeFormatter.ofPattern(pattern).format(message.getDateTime());
+		assertEquals(pattern, expected, new PatternFormatter("%d{" + pattern + "}").apply(message));
+	}
+
+	@Test
+	public void millis() {
+		assertTime("HH:mm:ss.SSS");
+	}
+
+	@Test
+	public void fourFractionDigits() {
+		assertTime("HH:mm:ss.SSSS");
+	}
+
+	@Test
+	public void fractionFollowedByLiteral() {
+		assertTime("HH:mm:ss.SSS'Z'");
+	}
+
+	@Test
+	public void onlyMillis() {
+		assertTime("SSS");
+	}
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.smoofyuniverse.logger.formatter;
+
+import org.junit.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+public class ThrowableRendererTest {
+	private static final String LS = System.lineSeparator();
+
+	private static Throwable throwable(String message, int depth) {
+		Throwable t = new IllegalStateException(message);
+		StackTraceElement[] trace = new StackTraceElement[depth];
+		for (int i = 0; i < depth; i++)
+			trace[i] = new StackTraceElement(i % 2 == 0 ? "app.Main" : "lib.internal.Proxy", "m" + i, "Main.java", i + 1);
+		t.setStackTrace(trace);
+		return t;
+	}
+
+	private static String printStackTrace(Throwable throwable) {
+		StringWriter writer = new StringWriter();
+		throwable.printStackTrace(new PrintWriter(writer));
+		return writer.toString();
+	}
+
+	@Test
+	public void sameAsPrintStackTrace() {
+		Throwable t = new RuntimeException("outer", new IllegalArgumentException("cause"));
+		t.addSuppressed(new IllegalStateException("suppressed"));
+		assertEquals(printStackTrace(t), ThrowableRenderer.DEFAULT.render(t));
+	}
+
+	@Test
+	public void maxDepth() {
+		String text = new ThrowableRenderer(2, new String[0], 0).render(throwable("x", 5));
+		assertEquals("java.lang.IllegalStateException: x" + LS
+				+ "\tat app.Main.m0(Main.java:1)" + LS
+				+ "\tat lib.internal.Proxy.m1(Main.java:2)" + LS
+				+ "\t... 3 truncated" + LS, text);
+
+		assertEquals("java.lang.IllegalStateException: x" + LS + "\t... 5 truncated" + LS,
+				new ThrowableRenderer(0, new String[0], 0).render(throwable("x", 5)));
+	}
+
+	@Test
+	public void collapsedPrefixes() {
+		String text = new ThrowableRenderer(Integer.MAX_VALUE, new String[]{"lib."}, 0).render(throwable("x", 4));
+		assertEquals("java.lang.IllegalStateException: x" + LS
+				+ "\tat app.Main.m0(Main.java:1)" + LS
+				+ "\t... 1 collapsed" + LS
+				+ "\tat app.Main.m2(Main.java:3)" + LS
+				+ "\t... 1 collapsed" + LS, text);
+	}
+
+	@Test
+	public void contentCache() {
+		ThrowableRenderer renderer = new ThrowableRenderer(Integer.MAX_VALUE, new String[0], 16);
+		Throwable t = throwable("x", 3);
+		assertEquals(printStackTrace(t), renderer.render(t));
+		assertEquals(printStackTrace(t), renderer.render(throwable("x", 3)));
+
+		Throwable other = throwable("y", 3);
+		assertEquals(printStackTrace(other), renderer.render(other));
+	}
+
+	@Test
+	public void identityCacheSeesNewCauseAndSuppressed() {
+		ThrowableRenderer renderer = new ThrowableRenderer(Integer.MAX_VALUE, new String[0], 16);
+		Throwable t = throwable("x", 1);
+		assertEquals(printStackTrace(t), renderer.render(t));
+
+		t.initCause(throwable("cause", 1));
+		assertEquals(printStackTrace(t), renderer.render(t));
+
+		t.addSuppressed(throwable("suppressed", 1));
+		assertEquals(printStackTrace(t), renderer.render(t));
+		assertEquals(printStackTrace(t), renderer.render(t));
+	}
+}
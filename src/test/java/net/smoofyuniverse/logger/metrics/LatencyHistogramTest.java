@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2017-2021 Hugo Dupanloup (Yeregorix)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.smoofyuniverse.logger.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+	@Test
+	public void empty() {
+		LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+		assertEquals(0, snapshot.getCount());
+		assertEquals(0, snapshot.getValueAtPercentile(99));
+		assertEquals(0, snapshot.getMean(), 0);
+	}
+
+	@Test
+	public void smallValuesAreExact() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 1; i <= 4; i++)
+			histogram.record(i);
+		histogram.record(-5);
+
+		LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+		assertEquals(5, snapshot.getCount());
+		assertEquals(0, snapshot.getValueAtPercentile(0));
+		assertEquals(2, snapshot.getValueAtPercentile(50));
+		assertEquals(4, snapshot.getValueAtPercentile(100));
+		assertEquals(2, snapshot.getMean(), 0);
+	}
+
+	@Test
+	public void percentilesWithinRelativeError() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (long v = 1; v <= 100_000; v++)
+			histogram.record(v * 1000);
+
+		LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+		assertEquals(100_000_000, snapshot.getMax());
+		double[] percentiles = {1, 25, 50, 90, 99, 99.9};
+		for (double p : percentiles) {
+			long expected = (long) (p * 1000 * 1000);
+			long value = snapshot.getValueAtPercentile(p);
+			assertTrue(p + ": " + value, value >= expected && value <= expected * 1.125);
+		}
+		assertEquals(100_000_000, snapshot.getValueAtPercentile(100));
+	}
+
+	@Test
+	public void maxBoundsPercentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(1000);
+		assertEquals(1000, histogram.snapshot().getValueAtPercentile(50));
+		histogram.record(Long.MAX_VALUE);
+		assertEquals(Long.MAX_VALUE, histogram.snapshot().getValueAtPercentile(100));
+	}
+
+	@Test
+	public void invalidPercentile() {
+		try {
+			new LatencyHistogram().snapshot().getValueAtPercentile(101);
+			fail("percentile");
+		} catch (IllegalArgumentException ignored) {
+		}
+	}
+}